@@ -13,6 +13,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import net.darkhax.bookshelf.command.ArgumentTypeMod;
+import net.darkhax.bookshelf.crafting.block.BlockIngredient;
 import net.darkhax.bookshelf.crafting.item.IngredientModid;
 import net.darkhax.bookshelf.crafting.predicate.ItemPredicateIngredient;
 import net.darkhax.bookshelf.crafting.predicate.ItemPredicateModid;
@@ -24,6 +25,11 @@ import net.darkhax.bookshelf.internal.BookshelfServer;
 import net.darkhax.bookshelf.internal.ISidedProxy;
 import net.darkhax.bookshelf.internal.command.ArgumentTypeHandOutput;
 import net.darkhax.bookshelf.internal.command.BookshelfCommands;
+import net.darkhax.bookshelf.item.ItemTier;
+import net.darkhax.bookshelf.item.ToolTypes;
+import net.darkhax.bookshelf.item.crafting.RecipeCache;
+import net.darkhax.bookshelf.lib.ItemNamespaceIndex;
+import net.darkhax.bookshelf.lib.StructureIndex;
 import net.darkhax.bookshelf.loot.condition.CheckBiomeTag;
 import net.darkhax.bookshelf.loot.condition.CheckDimensionId;
 import net.darkhax.bookshelf.loot.condition.CheckEnchantability;
@@ -43,11 +49,18 @@ import net.darkhax.bookshelf.loot.modifier.ModifierConvert;
 import net.darkhax.bookshelf.loot.modifier.ModifierRecipe;
 import net.darkhax.bookshelf.loot.modifier.ModifierSilkTouch;
 import net.darkhax.bookshelf.registry.RegistryHelper;
+import net.darkhax.bookshelf.util.BiomeUtils;
 import net.minecraft.advancements.criterion.ItemPredicate;
 import net.minecraft.command.arguments.ArgumentSerializer;
+import net.minecraft.resources.IResourceManager;
+import net.minecraft.resources.IResourceManagerReloadListener;
 import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TagsUpdatedEvent;
 import net.minecraftforge.fml.DistExecutor;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.event.lifecycle.FMLLoadCompleteEvent;
+import net.minecraftforge.fml.event.server.FMLServerAboutToStartEvent;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
 
 @Mod(Bookshelf.MOD_ID)
@@ -121,6 +134,54 @@ public class Bookshelf {
         ItemPredicate.register(new ResourceLocation("bookshelf", "modid"), ItemPredicateModid::fromJson);
         ItemPredicate.register(new ResourceLocation("bookshelf", "ingredient"), ItemPredicateIngredient::fromJson);
         
+        // World caches
+        MinecraftForge.EVENT_BUS.addListener(StructureIndex::onChunkUnload);
+        MinecraftForge.EVENT_BUS.addListener(StructureIndex::onWorldUnload);
+        MinecraftForge.EVENT_BUS.addListener(this::onServerAboutToStart);
+        MinecraftForge.EVENT_BUS.addListener(this::onTagsUpdated);
+        FMLJavaModLoadingContext.get().getModEventBus().addListener(this::onLoadComplete);
+        
         this.registry.initialize(FMLJavaModLoadingContext.get().getModEventBus());
     }
+    
+    private void onLoadComplete (FMLLoadCompleteEvent event) {
+        
+        BiomeUtils.invalidateTypeCache();
+        ItemNamespaceIndex.rebuild();
+    }
+    
+    private void onServerAboutToStart (FMLServerAboutToStartEvent event) {
+        
+        BiomeUtils.invalidateTypeCache();
+        
+        RecipeCache.install(event.getServer());
+        
+        // Runs after the tag manager when data packs are loaded or reloaded.
+        event.getServer().getResourceManager().addReloadListener((IResourceManagerReloadListener) this::onDataReloaded);
+    }
+    
+    private void onTagsUpdated (TagsUpdatedEvent event) {
+        
+        this.onTagsLoaded();
+    }
+    
+    private void onDataReloaded (IResourceManager resourceManager) {
+        
+        this.onTagsLoaded();
+    }
+    
+    /**
+     * Called when tags have been loaded on the server, or received by the client.
+     */
+    private void onTagsLoaded () {
+        
+        BlockIngredient.resolveAll().exceptionally(error -> {
+            
+            Bookshelf.LOG.error("Failed to resolve the blocks of block ingredients.");
+            Bookshelf.LOG.catching(error);
+            return null;
+        });
+        ToolTypes.refresh();
+        ItemTier.refreshAll();
+    }
 }
\ No newline at end of file
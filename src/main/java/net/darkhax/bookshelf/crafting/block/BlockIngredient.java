@@ -1,22 +1,34 @@
 package net.darkhax.bookshelf.crafting.block;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.darkhax.bookshelf.Bookshelf;
 import net.minecraft.block.Block;
 import net.minecraft.network.PacketBuffer;
+import net.minecraft.tags.BlockTags;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.Util;
+import net.minecraft.util.registry.Registry;
 
 /**
  * This class provides an implementation of block ingredient. It is similar to the vanilla
@@ -39,8 +51,36 @@ public class BlockIngredient implements Predicate<Block> {
      */
     private static Map<ResourceLocation, Function<JsonObject, IBlockResolver>> jsonDeserializers = new HashMap<>();
     
+    /**
+     * A packet format where every resolver is written with its full type id. Only the type ids
+     * of resolvers are affected, as resolvers are responsible for writing their own data.
+     */
+    public static final int PACKET_FORMAT_STRING = 0;
+    
+    /**
+     * A packet format where the built in resolvers are written using a small numeric type id,
+     * varints, and numeric block ids. Other resolvers fall back to the string form.
+     */
+    public static final int PACKET_FORMAT_COMPACT = 1;
+    
+    /**
+     * The packet format used when writing ingredients. The format is written at the start of
+     * each ingredient, so either format can always be read.
+     */
+    private static int packetFormat = PACKET_FORMAT_COMPACT;
+    
+    /**
+     * The resolver types which have a compact packet form. The position of a type in this list
+     * is its numeric type id, so new types must only be added to the end.
+     */
+    private static final List<CompactType<?>> compactTypes = new ArrayList<>();
+    
     static {
         
+        compactTypes.add(new CompactType<>(TYPE_BLOCK, BlockResolver.class, BlockResolver::serializeCompact, BlockResolver::deserializeCompact));
+        compactTypes.add(new CompactType<>(TYPE_BLOCK_LIST, BlockListResolver.class, BlockListResolver::serializeCompact, BlockListResolver::deserializeCompact));
+        compactTypes.add(new CompactType<>(TYPE_BLOCK_TAG, BlockTagResolver.class, BlockTagResolver::serializeCompact, BlockTagResolver::deserializeCompact));
+        
         packetDeserializers.put(TYPE_BLOCK, BlockResolver::deserialize);
         packetDeserializers.put(TYPE_BLOCK_LIST, BlockListResolver::deserialize);
         packetDeserializers.put(TYPE_BLOCK_TAG, BlockTagResolver::deserialize);
@@ -57,9 +97,16 @@ public class BlockIngredient implements Predicate<Block> {
     private final IBlockResolver[] resolvers;
     
     /**
-     * A list of all the valid blocks.
+     * Every block ingredient that has been created. Ingredients are weakly referenced so they
+     * can still be garbage collected.
      */
-    private List<Block> validBlocks;
+    private static final Set<BlockIngredient> INGREDIENTS = Collections.newSetFromMap(new WeakHashMap<>());
+    
+    /**
+     * The resolved valid blocks. This is replaced rather than modified, so it can be read
+     * safely from any thread.
+     */
+    private volatile ResolvedBlocks validBlocks;
     
     /**
      * Creates a new block ingredient.
@@ -69,32 +116,46 @@ public class BlockIngredient implements Predicate<Block> {
     public BlockIngredient(IBlockResolver... resolvers) {
         
         this.resolvers = resolvers;
+        
+        synchronized (INGREDIENTS) {
+            
+            INGREDIENTS.add(this);
+        }
     }
     
     @Override
     public boolean test (Block toTest) {
         
-        this.determineMatchingBlocks();
-        
-        if (toTest != null && this.validBlocks != null && !this.validBlocks.isEmpty()) {
-            
-            return this.validBlocks.contains(toTest);
-        }
-        
-        return false;
+        return toTest != null && this.determineMatchingBlocks().test(toTest);
     }
     
     /**
      * Resolves the various resolvers from {@link #resolvers}. If the valid block list exists
-     * then it will be ignored. You can call {@link #invalidate()} to reset the list and allow
-     * this method to be used again.
+     * and was resolved with the current block tags then it will be ignored. The list is
+     * resolved again automatically when block tags are reloaded. You can call
+     * {@link #invalidate()} to reset the list manually.
      */
-    private void determineMatchingBlocks () {
+    private ResolvedBlocks determineMatchingBlocks () {
         
-        if (this.validBlocks == null) {
+        final int generation = BlockTags.getGeneration();
+        ResolvedBlocks resolved = this.validBlocks;
+        
+        if (resolved == null || resolved.generation != generation) {
             
-            this.validBlocks = Collections.unmodifiableList(Arrays.stream(this.resolvers).flatMap(resolver -> resolver.resolveBlocks().stream()).distinct().collect(Collectors.toList()));
+            // Only one thread resolves the blocks, other threads wait for the result.
+            synchronized (this) {
+                
+                resolved = this.validBlocks;
+                
+                if (resolved == null || resolved.generation != generation) {
+                    
+                    resolved = new ResolvedBlocks(Arrays.stream(this.resolvers).flatMap(resolver -> resolver.resolveBlocks().stream()).distinct().collect(Collectors.toList()), generation);
+                    this.validBlocks = resolved;
+                }
+            }
         }
+        
+        return resolved;
     }
     
     /**
@@ -135,11 +196,34 @@ public class BlockIngredient implements Predicate<Block> {
      */
     public void serialize (PacketBuffer buffer) {
         
-        buffer.writeInt(this.resolvers.length);
+        final int format = packetFormat;
+        buffer.writeByte(format);
+        buffer.writeVarInt(this.resolvers.length);
         
         for (final IBlockResolver resolver : this.resolvers) {
             
-            resolver.serialize(buffer);
+            if (format == PACKET_FORMAT_COMPACT) {
+                
+                final int typeIndex = getCompactTypeIndex(resolver);
+                
+                // Zero is reserved for resolvers that use the string form.
+                buffer.writeVarInt(typeIndex + 1);
+                
+                if (typeIndex >= 0) {
+                    
+                    compactTypes.get(typeIndex).write(resolver, buffer);
+                }
+                
+                else {
+                    
+                    resolver.serialize(buffer);
+                }
+            }
+            
+            else {
+                
+                resolver.serialize(buffer);
+            }
         }
     }
     
@@ -150,8 +234,7 @@ public class BlockIngredient implements Predicate<Block> {
      */
     public List<Block> getValidBlocks () {
         
-        this.determineMatchingBlocks();
-        return this.validBlocks;
+        return this.determineMatchingBlocks().blocks;
     }
     
     /**
@@ -162,22 +245,90 @@ public class BlockIngredient implements Predicate<Block> {
      */
     public static BlockIngredient deserialize (PacketBuffer buffer) {
         
-        final int count = buffer.readInt();
+        final int format = buffer.readByte();
+        final int count = buffer.readVarInt();
         final IBlockResolver[] blockResolvers = new IBlockResolver[count];
         
         for (int i = 0; i < count; i++) {
             
-            final ResourceLocation typeId = ResourceLocation.tryCreate(buffer.readString());
+            final int typeIndex = format == PACKET_FORMAT_COMPACT ? buffer.readVarInt() - 1 : -1;
+            
+            if (typeIndex >= 0) {
+                
+                blockResolvers[i] = compactTypes.get(typeIndex).reader.apply(buffer);
+            }
             
-            if (typeId != null) {
+            else {
                 
-                blockResolvers[i] = packetDeserializers.get(typeId).apply(buffer);
+                final ResourceLocation typeId = ResourceLocation.tryCreate(buffer.readString());
+                
+                if (typeId != null) {
+                    
+                    blockResolvers[i] = packetDeserializers.get(typeId).apply(buffer);
+                }
             }
         }
         
         return new BlockIngredient(blockResolvers);
     }
     
+    /**
+     * Resolves the valid blocks of every block ingredient that has been created. The work is
+     * done in parallel on the background worker pool. This is used to warm up ingredients
+     * after tags have been loaded, so the first test of an ingredient does not need to resolve
+     * it.
+     * 
+     * @return A future which completes once every ingredient has been resolved.
+     */
+    public static CompletableFuture<Void> resolveAll () {
+        
+        final List<BlockIngredient> ingredients;
+        
+        synchronized (INGREDIENTS) {
+            
+            ingredients = new ArrayList<>(INGREDIENTS);
+        }
+        
+        return CompletableFuture.allOf(ingredients.stream().map(ingredient -> CompletableFuture.runAsync(ingredient::determineMatchingBlocks, Util.getServerExecutor())).toArray(CompletableFuture[]::new));
+    }
+    
+    /**
+     * Sets the packet format used when writing ingredients. The compact format is used by
+     * default. The string format can be used as a fallback when numeric block ids are not
+     * shared with the receiving side.
+     * 
+     * @param format The packet format, either {@link #PACKET_FORMAT_STRING} or
+     *        {@link #PACKET_FORMAT_COMPACT}.
+     */
+    public static void setPacketFormat (int format) {
+        
+        if (format != PACKET_FORMAT_STRING && format != PACKET_FORMAT_COMPACT) {
+            
+            throw new IllegalArgumentException("Unknown block ingredient packet format " + format);
+        }
+        
+        packetFormat = format;
+    }
+    
+    /**
+     * Gets the compact type id for a resolver.
+     * 
+     * @param resolver The resolver to look up.
+     * @return The compact type id of the resolver, or -1 if it does not have a compact form.
+     */
+    private static int getCompactTypeIndex (IBlockResolver resolver) {
+        
+        for (int i = 0; i < compactTypes.size(); i++) {
+            
+            if (compactTypes.get(i).canWrite(resolver)) {
+                
+                return i;
+            }
+        }
+        
+        return -1;
+    }
+    
     /**
      * Deserializes a block ingredient from a json element.
      * 
@@ -222,4 +373,108 @@ public class BlockIngredient implements Predicate<Block> {
         
         return new BlockIngredient(blockResolvers);
     }
+    
+    /**
+     * The resolved blocks of an ingredient. Small sets of blocks are matched using an identity
+     * hash set. Larger sets are matched using a bitset of numeric block ids, so testing a block
+     * does not depend on the amount of valid blocks.
+     */
+    private static class ResolvedBlocks {
+        
+        /**
+         * The amount of blocks at which a bitset is used instead of a hash set.
+         */
+        private static final int BITSET_THRESHOLD = 16;
+        
+        /**
+         * An unmodifiable list of the valid blocks.
+         */
+        private final List<Block> blocks;
+        
+        /**
+         * The valid blocks, when there are less than {@link #BITSET_THRESHOLD} of them.
+         */
+        @Nullable
+        private final Set<Block> blockSet;
+        
+        /**
+         * The numeric ids of the valid blocks, when there are at least
+         * {@link #BITSET_THRESHOLD} of them.
+         */
+        @Nullable
+        private final BitSet blockIds;
+        
+        /**
+         * The block tag generation the blocks were resolved with.
+         */
+        private final int generation;
+        
+        private ResolvedBlocks(List<Block> blocks, int generation) {
+            
+            this.blocks = Collections.unmodifiableList(blocks);
+            this.generation = generation;
+            
+            if (blocks.size() < BITSET_THRESHOLD) {
+                
+                this.blockSet = new ReferenceOpenHashSet<>(blocks);
+                this.blockIds = null;
+            }
+            
+            else {
+                
+                this.blockSet = null;
+                this.blockIds = new BitSet();
+                
+                for (final Block block : blocks) {
+                    
+                    final int blockId = Registry.BLOCK.getId(block);
+                    
+                    if (blockId >= 0) {
+                        
+                        this.blockIds.set(blockId);
+                    }
+                }
+            }
+        }
+        
+        private boolean test (Block block) {
+            
+            if (this.blockSet != null) {
+                
+                return this.blockSet.contains(block);
+            }
+            
+            final int blockId = Registry.BLOCK.getId(block);
+            return blockId >= 0 && this.blockIds.get(blockId);
+        }
+    }
+    
+    /**
+     * A resolver type with a compact packet form.
+     */
+    private static class CompactType<T extends IBlockResolver> {
+        
+        private final ResourceLocation typeId;
+        private final Class<T> resolverClass;
+        private final BiConsumer<T, PacketBuffer> writer;
+        private final Function<PacketBuffer, T> reader;
+        
+        private CompactType(ResourceLocation typeId, Class<T> resolverClass, BiConsumer<T, PacketBuffer> writer, Function<PacketBuffer, T> reader) {
+            
+            this.typeId = typeId;
+            this.resolverClass = resolverClass;
+            this.writer = writer;
+            this.reader = reader;
+        }
+        
+        private boolean canWrite (IBlockResolver resolver) {
+            
+            return this.resolverClass.isInstance(resolver) && this.typeId.equals(resolver.getTypeId());
+        }
+        
+        private void write (IBlockResolver resolver, PacketBuffer buffer) {
+            
+            this.writer.accept(this.resolverClass.cast(resolver), buffer);
+        }
+    }
 }
\ No newline at end of file
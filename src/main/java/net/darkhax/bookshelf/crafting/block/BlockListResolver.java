@@ -103,4 +103,32 @@ public class BlockListResolver implements IBlockResolver {
         
         return new BlockListResolver(blocks);
     }
+    
+    /**
+     * Serializes the resolver using the compact packet form. The type id is not included.
+     * 
+     * @param buffer The buffer to write to.
+     */
+    public void serializeCompact (PacketBuffer buffer) {
+        
+        buffer.writeVarInt(this.blocks.size());
+        
+        for (final Block block : this.blocks) {
+            
+            buffer.writeRegistryIdUnsafe(ForgeRegistries.BLOCKS, block);
+        }
+    }
+    
+    public static BlockListResolver deserializeCompact (PacketBuffer buffer) {
+        
+        final int amount = buffer.readVarInt();
+        final Collection<Block> blocks = new ArrayList<>(amount);
+        
+        for (int i = 0; i < amount; i++) {
+            
+            blocks.add(buffer.readRegistryIdUnsafe(ForgeRegistries.BLOCKS));
+        }
+        
+        return new BlockListResolver(blocks);
+    }
 }
\ No newline at end of file
@@ -77,4 +77,19 @@ public class BlockResolver implements IBlockResolver {
         
         return BlockIngredient.TYPE_BLOCK;
     }
+    
+    /**
+     * Serializes the resolver using the compact packet form. The type id is not included.
+     * 
+     * @param buffer The buffer to write to.
+     */
+    public void serializeCompact (PacketBuffer buffer) {
+        
+        buffer.writeRegistryIdUnsafe(ForgeRegistries.BLOCKS, this.block);
+    }
+    
+    public static BlockResolver deserializeCompact (PacketBuffer buffer) {
+        
+        return new BlockResolver(buffer.readRegistryIdUnsafe(ForgeRegistries.BLOCKS));
+    }
 }
\ No newline at end of file
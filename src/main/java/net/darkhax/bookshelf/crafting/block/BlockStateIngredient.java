@@ -0,0 +1,373 @@
+package net.darkhax.bookshelf.crafting.block;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.state.IProperty;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.util.JSONUtils;
+
+/**
+ * An ingredient that matches block states. The blocks are defined using a
+ * {@link BlockIngredient}, and the states of those blocks can be limited using property
+ * constraints. Each constraint names a property and the values it may have. States which do
+ * not have a constrained property will not match. The matching states are resolved into a set
+ * of block state ids, so testing a state is a single lookup.
+ */
+public class BlockStateIngredient implements Predicate<BlockState> {
+    
+    /**
+     * The blocks that may match.
+     */
+    private final BlockIngredient blocks;
+    
+    /**
+     * The property constraints. The keys are the names of the properties and the values are
+     * the names of the allowed values.
+     */
+    private final Map<String, Set<String>> properties;
+    
+    /**
+     * The ids of the matching states, and the block tag generation they were resolved with.
+     */
+    private volatile ResolvedStates resolvedStates;
+    
+    /**
+     * Creates a new block state ingredient.
+     * 
+     * @param blocks The blocks that may match.
+     * @param properties The property constraints. The keys are property names, and the values
+     *        are the names of the allowed values.
+     */
+    public BlockStateIngredient(BlockIngredient blocks, Map<String, Set<String>> properties) {
+        
+        this.blocks = blocks;
+        this.properties = Collections.unmodifiableMap(properties);
+    }
+    
+    @Override
+    public boolean test (BlockState state) {
+        
+        if (state == null) {
+            
+            return false;
+        }
+        
+        final int stateId = Block.getStateId(state);
+        return stateId >= 0 && this.getResolvedStates().stateIds.get(stateId);
+    }
+    
+    /**
+     * Gets the ids of the matching states, resolving them if they have not been resolved with
+     * the current block tags.
+     * 
+     * @return The resolved state ids.
+     */
+    private ResolvedStates getResolvedStates () {
+        
+        final int generation = BlockTags.getGeneration();
+        ResolvedStates resolved = this.resolvedStates;
+        
+        if (resolved == null || resolved.generation != generation) {
+            
+            final BitSet stateIds = new BitSet();
+            
+            for (final Block block : this.blocks.getValidBlocks()) {
+                
+                for (final BlockState state : block.getStateContainer().getValidStates()) {
+                    
+                    if (this.matchesProperties(state)) {
+                        
+                        stateIds.set(Block.getStateId(state));
+                    }
+                }
+            }
+            
+            resolved = new ResolvedStates(stateIds, generation);
+            this.resolvedStates = resolved;
+        }
+        
+        return resolved;
+    }
+    
+    /**
+     * Checks if a state meets all of the property constraints.
+     * 
+     * @param state The state to check.
+     * @return Whether or not the state meets all of the constraints.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private boolean matchesProperties (BlockState state) {
+        
+        for (final Entry<String, Set<String>> constraint : this.properties.entrySet()) {
+            
+            final IProperty property = state.getBlock().getStateContainer().getProperty(constraint.getKey());
+            
+            if (property == null || !constraint.getValue().contains(property.getName(state.get(property)))) {
+                
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Invalidates the resolved states and the blocks they were resolved from.
+     */
+    public void invalidate () {
+        
+        this.blocks.invalidate();
+        this.resolvedStates = null;
+    }
+    
+    /**
+     * Gets the block ingredient that defines which blocks may match.
+     * 
+     * @return The block ingredient.
+     */
+    public BlockIngredient getBlocks () {
+        
+        return this.blocks;
+    }
+    
+    /**
+     * Gets the property constraints of the ingredient.
+     * 
+     * @return An unmodifiable map of property names to allowed values.
+     */
+    public Map<String, Set<String>> getProperties () {
+        
+        return this.properties;
+    }
+    
+    /**
+     * Serializes the ingredient into a json object.
+     * 
+     * @return The serialized json object.
+     */
+    public JsonObject serialize () {
+        
+        final JsonObject json = new JsonObject();
+        json.add("blocks", this.blocks.serialize());
+        
+        final JsonObject propertiesJson = new JsonObject();
+        
+        for (final Entry<String, Set<String>> constraint : this.properties.entrySet()) {
+            
+            if (constraint.getValue().size() == 1) {
+                
+                propertiesJson.addProperty(constraint.getKey(), constraint.getValue().iterator().next());
+            }
+            
+            else {
+                
+                final JsonArray values = new JsonArray();
+                constraint.getValue().forEach(values::add);
+                propertiesJson.add(constraint.getKey(), values);
+            }
+        }
+        
+        json.add("properties", propertiesJson);
+        return json;
+    }
+    
+    /**
+     * Serializes the ingredient to a packet buffer.
+     * 
+     * @param buffer The buffer to write the ingredient to.
+     */
+    public void serialize (PacketBuffer buffer) {
+        
+        this.blocks.serialize(buffer);
+        buffer.writeVarInt(this.properties.size());
+        
+        for (final Entry<String, Set<String>> constraint : this.properties.entrySet()) {
+            
+            buffer.writeString(constraint.getKey());
+            buffer.writeVarInt(constraint.getValue().size());
+            constraint.getValue().forEach(buffer::writeString);
+        }
+    }
+    
+    /**
+     * Deserializes a block state ingredient from a packet buffer.
+     * 
+     * @param buffer The packet buffer.
+     * @return The deserialized ingredient.
+     */
+    public static BlockStateIngredient deserialize (PacketBuffer buffer) {
+        
+        final BlockIngredient blocks = BlockIngredient.deserialize(buffer);
+        final int propertyCount = buffer.readVarInt();
+        final Map<String, Set<String>> properties = new LinkedHashMap<>();
+        
+        for (int i = 0; i < propertyCount; i++) {
+            
+            final String name = buffer.readString();
+            final int valueCount = buffer.readVarInt();
+            final Set<String> values = new HashSet<>();
+            
+            for (int j = 0; j < valueCount; j++) {
+                
+                values.add(buffer.readString());
+            }
+            
+            properties.put(name, values);
+        }
+        
+        return new BlockStateIngredient(blocks, properties);
+    }
+    
+    /**
+     * Deserializes a block state ingredient from a json object. The blocks member is read as a
+     * {@link BlockIngredient}. The optional properties member maps property names to either a
+     * single value or an array of allowed values. Values may be strings, numbers or booleans,
+     * like in vanilla state predicates.
+     * 
+     * @param json The json object to read from.
+     * @return The deserialized ingredient.
+     * @throws JsonSyntaxException If a constraint has no values, or names a property or value
+     *         that none of the blocks have.
+     */
+    public static BlockStateIngredient deserialize (JsonObject json) {
+        
+        if (!json.has("blocks")) {
+            
+            throw new JsonSyntaxException("Missing required value blocks");
+        }
+        
+        final BlockIngredient blocks = BlockIngredient.deserialize(json.get("blocks"));
+        final Map<String, Set<String>> properties = new LinkedHashMap<>();
+        
+        if (json.has("properties")) {
+            
+            for (final Entry<String, JsonElement> property : JSONUtils.getJsonObject(json, "properties").entrySet()) {
+                
+                final Set<String> values = readPropertyValues(property.getKey(), property.getValue());
+                validateConstraint(blocks, property.getKey(), values);
+                properties.put(property.getKey(), values);
+            }
+        }
+        
+        return new BlockStateIngredient(blocks, properties);
+    }
+    
+    /**
+     * Reads the allowed values of a property constraint. Each value can be any json primitive.
+     * 
+     * @param name The name of the property.
+     * @param json The single value or array of values to read.
+     * @return The allowed values of the property.
+     * @throws JsonSyntaxException If there are no values, or a value is not a primitive.
+     */
+    private static Set<String> readPropertyValues (String name, JsonElement json) {
+        
+        final Set<String> values = new HashSet<>();
+        
+        if (json.isJsonArray()) {
+            
+            for (final JsonElement value : json.getAsJsonArray()) {
+                
+                if (!value.isJsonPrimitive()) {
+                    
+                    throw new JsonSyntaxException("Expected the values of property " + name + " to be primitives, was " + JSONUtils.toString(value));
+                }
+                
+                values.add(value.getAsString());
+            }
+        }
+        
+        else if (json.isJsonPrimitive()) {
+            
+            values.add(json.getAsString());
+        }
+        
+        else {
+            
+            throw new JsonSyntaxException("Expected property " + name + " to be a primitive or an array, was " + JSONUtils.toString(json));
+        }
+        
+        if (values.isEmpty()) {
+            
+            throw new JsonSyntaxException("Property " + name + " must allow at least one value");
+        }
+        
+        return values;
+    }
+    
+    /**
+     * Checks that at least one of the blocks has a property with the given name, and that
+     * every allowed value is valid for that property on at least one of the blocks. Nothing is
+     * checked if the blocks resolve to nothing, for example when a tag is empty.
+     * 
+     * @param blocks The blocks of the ingredient.
+     * @param name The name of the property.
+     * @param values The allowed values of the property.
+     * @throws JsonSyntaxException If the property or one of its values is not used by any of
+     *         the blocks.
+     */
+    private static void validateConstraint (BlockIngredient blocks, String name, Set<String> values) {
+        
+        final List<Block> validBlocks = blocks.getValidBlocks();
+        
+        if (validBlocks.isEmpty()) {
+            
+            return;
+        }
+        
+        final Set<String> unknownValues = new HashSet<>(values);
+        boolean hasProperty = false;
+        
+        for (final Block block : validBlocks) {
+            
+            final IProperty<?> property = block.getStateContainer().getProperty(name);
+            
+            if (property != null) {
+                
+                hasProperty = true;
+                unknownValues.removeIf(value -> property.parseValue(value).isPresent());
+            }
+        }
+        
+        if (!hasProperty) {
+            
+            throw new JsonSyntaxException("None of the blocks have the property " + name);
+        }
+        
+        if (!unknownValues.isEmpty()) {
+            
+            throw new JsonSyntaxException("None of the blocks allow the values " + unknownValues + " for property " + name);
+        }
+    }
+    
+    /**
+     * The resolved state ids of an ingredient.
+     */
+    private static class ResolvedStates {
+        
+        private final BitSet stateIds;
+        private final int generation;
+        
+        private ResolvedStates(BitSet stateIds, int generation) {
+            
+            this.stateIds = stateIds;
+            this.generation = generation;
+        }
+    }
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package net.darkhax.bookshelf.crafting.block;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.gson.JsonObject;
@@ -19,6 +20,11 @@ public class BlockTagResolver implements IBlockResolver {
     
     private final ResourceLocation tagId;
     
+    /**
+     * The blocks in the tag, and the block tag generation they were resolved with.
+     */
+    private volatile ResolvedTag resolvedTag;
+    
     public BlockTagResolver(ResourceLocation tagId) {
         
         this.tagId = tagId;
@@ -27,16 +33,24 @@ public class BlockTagResolver implements IBlockResolver {
     @Override
     public Collection<Block> resolveBlocks () {
         
-        final List<Block> blocks = new ArrayList<>();
-        
-        final Tag<Block> tag = BlockTags.getCollection().get(this.tagId);
+        final int generation = BlockTags.getGeneration();
+        ResolvedTag resolved = this.resolvedTag;
         
-        if (tag != null) {
+        if (resolved == null || resolved.generation != generation) {
+            
+            final List<Block> blocks = new ArrayList<>();
+            final Tag<Block> tag = BlockTags.getCollection().get(this.tagId);
             
-            blocks.addAll(tag.getAllElements());
+            if (tag != null) {
+                
+                blocks.addAll(tag.getAllElements());
+            }
+            
+            resolved = new ResolvedTag(Collections.unmodifiableList(blocks), generation);
+            this.resolvedTag = resolved;
         }
         
-        return blocks;
+        return resolved.blocks;
     }
     
     @Override
@@ -72,4 +86,34 @@ public class BlockTagResolver implements IBlockResolver {
         final ResourceLocation tagId = buffer.readResourceLocation();
         return new BlockTagResolver(tagId);
     }
+    
+    /**
+     * Serializes the resolver using the compact packet form. The type id is not included.
+     * 
+     * @param buffer The buffer to write to.
+     */
+    public void serializeCompact (PacketBuffer buffer) {
+        
+        buffer.writeResourceLocation(this.tagId);
+    }
+    
+    public static BlockTagResolver deserializeCompact (PacketBuffer buffer) {
+        
+        return new BlockTagResolver(buffer.readResourceLocation());
+    }
+    
+    /**
+     * The resolved blocks of a tag.
+     */
+    private static class ResolvedTag {
+        
+        private final Collection<Block> blocks;
+        private final int generation;
+        
+        private ResolvedTag(Collection<Block> blocks, int generation) {
+            
+            this.blocks = blocks;
+            this.generation = generation;
+        }
+    }
 }
\ No newline at end of file
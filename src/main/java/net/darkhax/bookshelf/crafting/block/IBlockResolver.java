@@ -28,7 +28,8 @@ public interface IBlockResolver {
     void serialize (PacketBuffer buffer);
     
     /**
-     * Resolves the blocks to make valid.
+     * Resolves the blocks to make valid. Resolvers may cache the returned collection, so it
+     * should not be modified.
      * 
      * @return The blocks that are now valid.
      */
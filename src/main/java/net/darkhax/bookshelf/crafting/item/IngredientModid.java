@@ -5,6 +5,7 @@ import java.util.stream.Stream;
 
 import com.google.gson.JsonObject;
 
+import net.darkhax.bookshelf.lib.ItemNamespaceIndex;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.Ingredient;
@@ -13,7 +14,6 @@ import net.minecraft.util.JSONUtils;
 import net.minecraft.util.NonNullList;
 import net.minecraftforge.common.crafting.IIngredientSerializer;
 import net.minecraftforge.common.crafting.StackList;
-import net.minecraftforge.registries.ForgeRegistries;
 
 public class IngredientModid extends Ingredient {
     
@@ -21,16 +21,19 @@ public class IngredientModid extends Ingredient {
     
     private final String modid;
     
+    private final int namespaceId;
+    
     private IngredientModid(String modid, Stream<? extends Ingredient.IItemList> itemLists) {
         
         super(itemLists);
         this.modid = modid;
+        this.namespaceId = ItemNamespaceIndex.get().getNamespaceId(modid);
     }
     
     @Override
     public boolean test (ItemStack stack) {
         
-        return stack.getItem().getRegistryName().getNamespace().equals(this.modid);
+        return stack != null && ItemNamespaceIndex.get().isInNamespace(stack.getItem(), this.namespaceId);
     }
     
     @Override
@@ -50,8 +53,10 @@ public class IngredientModid extends Ingredient {
         @Override
         public IngredientModid parse (PacketBuffer buffer) {
             
+            // Only the modid is synced. The items of a namespace are the same on both sides, so
+            // the client rebuilds the list itself and identical ingredients cost one string each.
             final String modid = buffer.readString();
-            return new IngredientModid(modid, Stream.generate( () -> new Ingredient.SingleItemList(buffer.readItemStack())).limit(buffer.readVarInt()));
+            return new IngredientModid(modid, Stream.of(new StackList(this.getMatchingItems(modid))));
         }
         
         @Override
@@ -65,26 +70,15 @@ public class IngredientModid extends Ingredient {
         public void write (PacketBuffer buffer, IngredientModid ingredient) {
             
             buffer.writeString(ingredient.modid);
-            
-            final ItemStack[] items = ingredient.getMatchingStacks();
-            buffer.writeVarInt(items.length);
-            
-            for (final ItemStack stack : items) {
-                
-                buffer.writeItemStack(stack);
-            }
         }
         
         private List<ItemStack> getMatchingItems (String modid) {
             
             final List<ItemStack> matchingItems = NonNullList.create();
             
-            for (final Item item : ForgeRegistries.ITEMS.getValues()) {
+            for (final Item item : ItemNamespaceIndex.get().getItems(modid)) {
                 
-                if (item.getRegistryName().getNamespace().equals(modid)) {
-                    
-                    matchingItems.add(new ItemStack(item));
-                }
+                matchingItems.add(new ItemStack(item));
             }
             
             return matchingItems;
@@ -1,11 +1,14 @@
 package net.darkhax.bookshelf.crafting.item;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import com.google.gson.JsonObject;
 
+import net.darkhax.bookshelf.util.PacketUtils;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.Ingredient;
@@ -22,6 +25,17 @@ import net.minecraftforge.registries.ForgeRegistries;
  */
 public class IngredientPredicate extends Ingredient {
     
+    /**
+     * All serializers that have been created. The ingredients of every serializer are built
+     * together, using one scan of the item registry.
+     */
+    private static final List<Serializer> SERIALIZERS = new ArrayList<>();
+    
+    /**
+     * The tag generation that the cached ingredients were built with.
+     */
+    private static int cacheGeneration = -1;
+    
     /**
      * This ingredient implementation is polymorphic so it needs to keep reference of the
      * serializer that created it for {@link #getSerializer()}.
@@ -54,7 +68,65 @@ public class IngredientPredicate extends Ingredient {
      */
     public static Serializer create (Predicate<Item> predicate) {
         
-        return new Serializer(predicate);
+        final Serializer serializer = new Serializer(predicate);
+        
+        synchronized (SERIALIZERS) {
+            
+            SERIALIZERS.add(serializer);
+            cacheGeneration = -1;
+        }
+        
+        return serializer;
+    }
+    
+    /**
+     * Builds the cached ingredients of every serializer if they were not built with the
+     * current item tags. Every registered item is tested against every predicate in a single
+     * parallel pass over the item registry. Predicates must be thread safe for this.
+     */
+    private static void refreshIngredients () {
+        
+        synchronized (SERIALIZERS) {
+            
+            final int generation = ItemTags.getGeneration();
+            
+            if (cacheGeneration == generation) {
+                
+                return;
+            }
+            
+            final List<Item> items = new ArrayList<>(ForgeRegistries.ITEMS.getValues());
+            final Serializer[] serializers = SERIALIZERS.toArray(new Serializer[0]);
+            final boolean[][] matches = new boolean[serializers.length][items.size()];
+            
+            IntStream.range(0, items.size()).parallel().forEach(itemIndex -> {
+                
+                final Item item = items.get(itemIndex);
+                
+                for (int i = 0; i < serializers.length; i++) {
+                    
+                    matches[i][itemIndex] = serializers[i].itemPredicate.test(item);
+                }
+            });
+            
+            // The lists are built in registry order so the ingredients are consistent.
+            for (int i = 0; i < serializers.length; i++) {
+                
+                final List<ItemStack> matchingItems = NonNullList.create();
+                
+                for (int itemIndex = 0; itemIndex < items.size(); itemIndex++) {
+                    
+                    if (matches[i][itemIndex]) {
+                        
+                        matchingItems.add(new ItemStack(items.get(itemIndex)));
+                    }
+                }
+                
+                serializers[i].ingredient = new IngredientPredicate(serializers[i], Stream.of(new StackList(matchingItems)));
+            }
+            
+            cacheGeneration = generation;
+        }
     }
     
     static class Serializer implements IIngredientSerializer<IngredientPredicate> {
@@ -66,15 +138,10 @@ public class IngredientPredicate extends Ingredient {
         
         /**
          * Cache of the ingredient for performance reasons. Predicates must be deterministic so
-         * this only needs to be calculated once per resource load.
-         */
-        private IngredientPredicate ingredient;
-        
-        /**
-         * The tag generation of when the {@link #ingredient} cache was generated. This is used
-         * to check if the game has been reloaded and the cache must be invalidated.
+         * this only needs to be calculated once per resource load. This is built for all
+         * serializers at once by {@link IngredientPredicate#refreshIngredients()}.
          */
-        private int generation;
+        private volatile IngredientPredicate ingredient;
         
         /**
          * This constructor is intentionally restricted. Use
@@ -91,7 +158,7 @@ public class IngredientPredicate extends Ingredient {
             // This code is where the client handles reading the ingredient from the server.
             // The client should not be trusted to generate the ingredient cache so it is
             // instead based on a stream of items sent from the server.
-            return new IngredientPredicate(this, Stream.generate( () -> new Ingredient.SingleItemList(buffer.readItemStack())).limit(buffer.readVarInt()));
+            return new IngredientPredicate(this, Stream.of(new StackList(PacketUtils.deserializeItems(buffer))));
         }
         
         @Override
@@ -99,40 +166,15 @@ public class IngredientPredicate extends Ingredient {
             
             // This code is where the server creates the ingredient from the JSON data. We only
             // need one instance per data/resource load so we make and use a cache of the
-            // ingredient.
-            if (this.ingredient == null || this.generation != ItemTags.getGeneration()) {
-                
-                this.ingredient = new IngredientPredicate(this, Stream.of(new StackList(this.getMatchingItems())));
-            }
-            
+            // ingredient. The cache is rebuilt when the item tags change.
+            refreshIngredients();
             return this.ingredient;
         }
         
         @Override
         public void write (PacketBuffer buffer, IngredientPredicate ingredient) {
             
-            final ItemStack[] items = ingredient.getMatchingStacks();
-            buffer.writeVarInt(items.length);
-            
-            for (final ItemStack stack : items) {
-                
-                buffer.writeItemStack(stack);
-            }
-        }
-        
-        private List<ItemStack> getMatchingItems () {
-            
-            final List<ItemStack> matchingItems = NonNullList.create();
-            
-            for (final Item item : ForgeRegistries.ITEMS.getValues()) {
-                
-                if (this.itemPredicate.test(item)) {
-                    
-                    matchingItems.add(new ItemStack(item));
-                }
-            }
-            
-            return matchingItems;
+            PacketUtils.serializeItems(buffer, ingredient.getMatchingStacks());
         }
     }
 }
\ No newline at end of file
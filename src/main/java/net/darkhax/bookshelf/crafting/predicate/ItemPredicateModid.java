@@ -2,6 +2,7 @@ package net.darkhax.bookshelf.crafting.predicate;
 
 import com.google.gson.JsonObject;
 
+import net.darkhax.bookshelf.lib.ItemNamespaceIndex;
 import net.minecraft.advancements.criterion.ItemPredicate;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.JSONUtils;
@@ -10,15 +11,18 @@ public class ItemPredicateModid extends ItemPredicate {
     
     private final String modid;
     
+    private final int namespaceId;
+    
     public ItemPredicateModid(String modid) {
         
         this.modid = modid;
+        this.namespaceId = ItemNamespaceIndex.get().getNamespaceId(modid);
     }
     
     @Override
     public boolean test (ItemStack stack) {
         
-        return !stack.isEmpty() && stack.getItem().getRegistryName().getNamespace().equals(this.modid);
+        return !stack.isEmpty() && ItemNamespaceIndex.get().isInNamespace(stack.getItem(), this.namespaceId);
     }
     
     public static ItemPredicate fromJson (JsonObject json) {
@@ -0,0 +1,203 @@
+package net.darkhax.bookshelf.crafting.recipes;
+
+import java.util.BitSet;
+import java.util.List;
+
+import net.darkhax.bookshelf.crafting.item.IngredientPredicate;
+import net.minecraft.inventory.CraftingInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.util.registry.Registry;
+
+/**
+ * A cheap check used to reject a crafting grid before a recipe does its full matching. The
+ * ingredients of the recipe are reduced to a signature made of the amount of slots that must
+ * be filled, the largest area those slots can span, and a bitset of every item the
+ * ingredients accept. A grid which does not fit the signature can not match the recipe. The
+ * signature is built the first time it is used, and rebuilt when item tags are reloaded.
+ */
+public class RecipeGridFilter {
+    
+    /**
+     * The ingredients of the recipe.
+     */
+    private final List<Ingredient> ingredients;
+    
+    /**
+     * The maximum width of the filled slots.
+     */
+    private final int width;
+    
+    /**
+     * The maximum height of the filled slots.
+     */
+    private final int height;
+    
+    /**
+     * The current signature of the recipe.
+     */
+    private volatile Signature signature;
+    
+    private RecipeGridFilter(List<Ingredient> ingredients, int width, int height) {
+        
+        this.ingredients = ingredients;
+        this.width = width;
+        this.height = height;
+    }
+    
+    /**
+     * Checks if a crafting grid could match the recipe. This can give false positives, so a
+     * full match must still be done when this returns true.
+     * 
+     * @param inv The crafting grid to check.
+     * @return Whether or not the grid could match the recipe.
+     */
+    public boolean mayMatch (CraftingInventory inv) {
+        
+        final Signature current = this.getSignature();
+        
+        if (current.items == null) {
+            
+            return true;
+        }
+        
+        int filledSlots = 0;
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = -1;
+        int maxY = -1;
+        
+        for (int y = 0; y < inv.getHeight(); y++) {
+            
+            for (int x = 0; x < inv.getWidth(); x++) {
+                
+                final ItemStack stack = inv.getStackInSlot(x + y * inv.getWidth());
+                
+                if (!stack.isEmpty()) {
+                    
+                    final int id = Registry.ITEM.getId(stack.getItem());
+                    
+                    if (++filledSlots > current.filledSlots || id < 0 || !current.items.get(id)) {
+                        
+                        return false;
+                    }
+                    
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                    maxX = Math.max(maxX, x);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+        }
+        
+        return filledSlots == current.filledSlots && (filledSlots == 0 || maxX - minX < this.width && maxY - minY < this.height);
+    }
+    
+    /**
+     * Gets the signature of the recipe, building it if it is missing or stale.
+     * 
+     * @return The current signature of the recipe.
+     */
+    private Signature getSignature () {
+        
+        final int generation = ItemTags.getGeneration();
+        Signature current = this.signature;
+        
+        if (current == null || current.generation != generation) {
+            
+            current = this.buildSignature(generation);
+            this.signature = current;
+        }
+        
+        return current;
+    }
+    
+    /**
+     * Builds the signature of the recipe. The signature is only used if every ingredient
+     * matches by item alone, otherwise the filter would reject valid grids. Ingredients
+     * without any items only accept empty slots, and do not count as a filled slot.
+     * 
+     * @param generation The item tag generation the signature is built with.
+     * @return The signature of the recipe.
+     */
+    private Signature buildSignature (int generation) {
+        
+        final BitSet items = new BitSet();
+        int filledSlots = 0;
+        
+        for (final Ingredient ingredient : this.ingredients) {
+            
+            if (ingredient.getClass() != Ingredient.class && !(ingredient instanceof IngredientPredicate)) {
+                
+                return new Signature(null, 0, generation);
+            }
+            
+            final ItemStack[] stacks = ingredient.getMatchingStacks();
+            
+            if (stacks.length > 0) {
+                
+                filledSlots++;
+            }
+            
+            for (final ItemStack stack : stacks) {
+                
+                final int id = Registry.ITEM.getId(stack.getItem());
+                
+                if (stack.isEmpty() || id < 0) {
+                    
+                    return new Signature(null, 0, generation);
+                }
+                
+                items.set(id);
+            }
+        }
+        
+        return new Signature(items, filledSlots, generation);
+    }
+    
+    /**
+     * Creates a filter for a shaped recipe.
+     * 
+     * @param ingredients The ingredients of the recipe, including empty ones.
+     * @param width The width of the recipe.
+     * @param height The height of the recipe.
+     * @return A filter for the recipe.
+     */
+    public static RecipeGridFilter shaped (List<Ingredient> ingredients, int width, int height) {
+        
+        return new RecipeGridFilter(ingredients, width, height);
+    }
+    
+    /**
+     * Creates a filter for a shapeless recipe.
+     * 
+     * @param ingredients The ingredients of the recipe.
+     * @return A filter for the recipe.
+     */
+    public static RecipeGridFilter shapeless (List<Ingredient> ingredients) {
+        
+        return new RecipeGridFilter(ingredients, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * The signature of a recipe.
+     */
+    private static class Signature {
+        
+        /**
+         * The registry ids of every item the ingredients accept. This is null when the
+         * recipe can not be filtered.
+         */
+        private final BitSet items;
+        private final int filledSlots;
+        private final int generation;
+        
+        private Signature(BitSet items, int filledSlots, int generation) {
+            
+            this.items = items;
+            this.filledSlots = filledSlots;
+            this.generation = generation;
+        }
+    }
+}
\ No newline at end of file
@@ -14,6 +14,7 @@ import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.JSONUtils;
 import net.minecraft.util.NonNullList;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.World;
 import net.minecraftforge.registries.ForgeRegistryEntry;
 
 public class ShapedRecipeDamaging extends ShapedRecipe {
@@ -22,12 +23,20 @@ public class ShapedRecipeDamaging extends ShapedRecipe {
     
     private final int damageAmount;
     private final boolean ignoreUnbreaking;
+    private final RecipeGridFilter gridFilter;
     
     public ShapedRecipeDamaging(ResourceLocation id, String group, int width, int height, NonNullList<Ingredient> input, ItemStack output, int damageAmount, boolean ignoreUnbreaking) {
         
         super(id, group, width, height, input, output);
         this.damageAmount = damageAmount;
         this.ignoreUnbreaking = ignoreUnbreaking;
+        this.gridFilter = RecipeGridFilter.shaped(input, width, height);
+    }
+    
+    @Override
+    public boolean matches (CraftingInventory inv, World world) {
+        
+        return this.gridFilter.mayMatch(inv) && super.matches(inv, world);
     }
     
     @Override
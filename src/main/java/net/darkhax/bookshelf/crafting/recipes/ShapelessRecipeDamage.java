@@ -16,6 +16,7 @@ import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.JSONUtils;
 import net.minecraft.util.NonNullList;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.World;
 import net.minecraftforge.registries.ForgeRegistryEntry;
 
 public class ShapelessRecipeDamage extends ShapelessRecipe {
@@ -24,12 +25,20 @@ public class ShapelessRecipeDamage extends ShapelessRecipe {
     
     private final int damageAmount;
     private final boolean ignoreUnbreaking;
+    private final RecipeGridFilter gridFilter;
     
     public ShapelessRecipeDamage(ResourceLocation id, String group, ItemStack output, NonNullList<Ingredient> inputs, int damageAmount, boolean ignoreUnbreaking) {
         
         super(id, group, output, inputs);
         this.damageAmount = damageAmount;
         this.ignoreUnbreaking = ignoreUnbreaking;
+        this.gridFilter = RecipeGridFilter.shapeless(inputs);
+    }
+    
+    @Override
+    public boolean matches (CraftingInventory inv, World world) {
+        
+        return this.gridFilter.mayMatch(inv) && super.matches(inv, world);
     }
     
     @Override
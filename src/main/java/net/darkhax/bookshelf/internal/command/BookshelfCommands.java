@@ -11,12 +11,13 @@ import net.minecraft.command.Commands;
 public class BookshelfCommands {
     
     private static final String LOOT_TABLE_BLOCK_DROP_SELF = "{\"type\":\"minecraft:block\",\"pools\":[{\"rolls\":1,\"entries\":[{\"type\":\"minecraft:item\",\"name\":\"%output%\"}],\"conditions\":[{\"condition\":\"minecraft:survives_explosion\"}]}]}";
-    private static final File OUTPUT_DIR = new File("dump/bookshelf");
+    static final File OUTPUT_DIR = new File("dump/bookshelf");
     
     public BookshelfCommands(RegistryHelper registry) {
         
         final LiteralArgumentBuilder<CommandSource> root = Commands.literal("bookshelf");
         new CommandHand(root);
+        new CommandLootSimulate(root);
         registry.registerCommand(root);
     }
 }
\ No newline at end of file
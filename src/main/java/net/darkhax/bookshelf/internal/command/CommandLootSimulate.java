@@ -0,0 +1,284 @@
+package net.darkhax.bookshelf.internal.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import com.mojang.brigadier.arguments.FloatArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.DynamicCommandExceptionType;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import net.darkhax.bookshelf.Bookshelf;
+import net.darkhax.bookshelf.lib.TableBuilder;
+import net.minecraft.block.BlockState;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.command.ISuggestionProvider;
+import net.minecraft.command.arguments.BlockStateArgument;
+import net.minecraft.command.arguments.ResourceLocationArgument;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.Util;
+import net.minecraft.util.concurrent.TickDelayedTask;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.StringTextComponent;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraft.world.storage.loot.LootContext;
+import net.minecraft.world.storage.loot.LootParameterSets;
+import net.minecraft.world.storage.loot.LootParameters;
+import net.minecraft.world.storage.loot.LootTable;
+import net.minecraft.world.storage.loot.LootTableManager;
+
+/**
+ * A command which rolls a loot table many times and writes the distribution of the generated
+ * items to a report. Loot conditions and functions can read the world and the entity in the
+ * context, so the rolls are done on the server thread. They are done in short slices which are
+ * queued one after another, so the server keeps ticking while a large simulation runs. Only
+ * the report is written off the server thread. Global loot modifiers are not applied.
+ */
+public class CommandLootSimulate {
+    
+    private static final DynamicCommandExceptionType UNKNOWN_TABLE = new DynamicCommandExceptionType(tableId -> new StringTextComponent("Unknown loot table " + tableId));
+    
+    /**
+     * The longest time a single slice of rolls may run for before the rest are queued.
+     */
+    private static final long SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    
+    public CommandLootSimulate(LiteralArgumentBuilder<CommandSource> root) {
+        
+        root.then(Commands.literal("loot").requires(source -> source.hasPermissionLevel(2)).then(Commands.literal("simulate").then(Commands.argument("table", ResourceLocationArgument.resourceLocation()).suggests( (context, builder) -> ISuggestionProvider.suggestIterable(context.getSource().getServer().getLootTableManager().getLootTableKeys(), builder)).then(Commands.argument("rolls", IntegerArgumentType.integer(1)).executes(context -> this.simulate(context, 0f, null)).then(Commands.argument("luck", FloatArgumentType.floatArg()).executes(context -> this.simulate(context, FloatArgumentType.getFloat(context, "luck"), null)).then(Commands.argument("block", BlockStateArgument.blockState()).executes(context -> this.simulate(context, FloatArgumentType.getFloat(context, "luck"), BlockStateArgument.getBlockState(context, "block").getState()))))))));
+    }
+    
+    private int simulate (CommandContext<CommandSource> context, float luck, @Nullable BlockState state) throws CommandSyntaxException {
+        
+        final CommandSource source = context.getSource();
+        final MinecraftServer server = source.getServer();
+        final LootTableManager manager = server.getLootTableManager();
+        final ResourceLocation tableId = ResourceLocationArgument.getResourceLocation(context, "table");
+        final int rolls = IntegerArgumentType.getInteger(context, "rolls");
+        
+        if (!manager.getLootTableKeys().contains(tableId)) {
+            
+            throw UNKNOWN_TABLE.create(tableId);
+        }
+        
+        final LootTable table = manager.getLootTableFromLocation(tableId);
+        final ServerWorld world = source.getWorld();
+        final BlockPos pos = new BlockPos(source.getPos());
+        final Entity entity = source.getEntity();
+        final ItemStack tool = entity instanceof LivingEntity ? ((LivingEntity) entity).getHeldItemMainhand().copy() : ItemStack.EMPTY;
+        
+        // The simulation uses a fresh seed so it does not advance the world's random.
+        final long seed = new Random().nextLong();
+        final LootContext.Builder builder = new LootContext.Builder(world).withRandom(new Random(seed)).withLuck(luck);
+        builder.withParameter(LootParameters.POSITION, pos);
+        builder.withParameter(LootParameters.TOOL, tool);
+        builder.withNullableParameter(LootParameters.THIS_ENTITY, entity);
+        builder.withNullableParameter(LootParameters.BLOCK_STATE, state);
+        
+        final long startTime = System.currentTimeMillis();
+        final Simulation simulation = new Simulation(server, table, builder.build(LootParameterSets.GENERIC), rolls);
+        source.sendFeedback(new StringTextComponent("Simulating " + rolls + " rolls of " + tableId + "."), true);
+        simulation.schedule();
+        
+        simulation.result.thenApplyAsync(histogram -> writeReport(tableId, luck, seed, state, histogram), Util.getServerExecutor()).whenCompleteAsync( (file, error) -> {
+            
+            if (error != null) {
+                
+                Bookshelf.LOG.error("Failed to simulate loot table {}.", tableId);
+                Bookshelf.LOG.catching(error);
+                source.sendErrorMessage(new StringTextComponent("Failed to simulate " + tableId + ". See the log for details."));
+            }
+            
+            else {
+                
+                source.sendFeedback(new StringTextComponent("Simulated " + rolls + " rolls of " + tableId + " in " + (System.currentTimeMillis() - startTime) + "ms. The report was written to " + file.getPath()), true);
+            }
+        }, server);
+        
+        return rolls;
+    }
+    
+    /**
+     * Writes the results of a simulation to a file in the output directory.
+     * 
+     * @param tableId The id of the simulated table.
+     * @param luck The luck used for the simulation.
+     * @param seed The seed of the random used for the simulation.
+     * @param state The block state used for the simulation.
+     * @param histogram The results of the simulation.
+     * @return The file that was written.
+     */
+    private static File writeReport (ResourceLocation tableId, float luck, long seed, @Nullable BlockState state, Histogram histogram) {
+        
+        final TableBuilder<Object2LongMap.Entry<Item>> report = new TableBuilder<>();
+        report.addColumn("Item", entry -> entry.getKey().getRegistryName());
+        report.addColumn("Total", Object2LongMap.Entry::getLongValue);
+        report.addColumn("Per Roll", entry -> String.format("%.4f", (double) entry.getLongValue() / histogram.rolls));
+        report.addColumn("Chance", entry -> String.format("%.4f%%", 100d * histogram.hits.getLong(entry.getKey()) / histogram.rolls));
+        report.addColumn("Max Per Roll", entry -> histogram.maximums.getInt(entry.getKey()));
+        
+        histogram.totals.object2LongEntrySet().forEach(report::addEntry);
+        report.getEntries().sort( (first, second) -> Long.compare(second.getLongValue(), first.getLongValue()));
+        
+        final StringBuilder builder = new StringBuilder();
+        builder.append("Table: ").append(tableId).append(Bookshelf.NEW_LINE);
+        builder.append("Rolls: ").append(histogram.rolls).append(Bookshelf.NEW_LINE);
+        builder.append("Empty Rolls: ").append(histogram.emptyRolls).append(Bookshelf.NEW_LINE);
+        builder.append("Luck: ").append(luck).append(Bookshelf.NEW_LINE);
+        builder.append("Seed: ").append(seed).append(Bookshelf.NEW_LINE);
+        builder.append("Block: ").append(state).append(Bookshelf.NEW_LINE);
+        builder.append(Bookshelf.NEW_LINE);
+        builder.append(report.toString());
+        
+        final File file = new File(BookshelfCommands.OUTPUT_DIR, "loot_simulation_" + tableId.getNamespace() + "_" + tableId.getPath().replace('/', '_') + ".txt");
+        
+        try {
+            
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        
+        catch (final IOException e) {
+            
+            throw new UncheckedIOException(e);
+        }
+        
+        return file;
+    }
+    
+    /**
+     * A simulation in progress. Each slice rolls the table until it runs out of rolls or time,
+     * then queues the next slice on the server.
+     */
+    private static class Simulation implements Runnable {
+        
+        private final MinecraftServer server;
+        private final LootTable table;
+        private final LootContext context;
+        private final Histogram histogram = new Histogram();
+        private final Object2IntOpenHashMap<Item> rollCounts = new Object2IntOpenHashMap<>();
+        
+        /**
+         * Completed with the histogram once every roll has been done.
+         */
+        private final CompletableFuture<Histogram> result = new CompletableFuture<>();
+        
+        private int remainingRolls;
+        
+        private Simulation(MinecraftServer server, LootTable table, LootContext context, int rolls) {
+            
+            this.server = server;
+            this.table = table;
+            this.context = context;
+            this.remainingRolls = rolls;
+        }
+        
+        /**
+         * Queues the next slice of rolls on the server thread.
+         */
+        private void schedule () {
+            
+            this.server.enqueue(new TickDelayedTask(this.server.getTickCounter(), this));
+        }
+        
+        @Override
+        public void run () {
+            
+            try {
+                
+                final long sliceEnd = System.nanoTime() + SLICE_NANOS;
+                
+                while (this.remainingRolls > 0 && System.nanoTime() < sliceEnd) {
+                    
+                    this.rollCounts.clear();
+                    this.table.generate(this.context, stack -> this.rollCounts.addTo(stack.getItem(), stack.getCount()));
+                    this.histogram.record(this.rollCounts);
+                    this.remainingRolls--;
+                }
+                
+                if (this.remainingRolls > 0) {
+                    
+                    this.schedule();
+                }
+                
+                else {
+                    
+                    this.result.complete(this.histogram);
+                }
+            }
+            
+            catch (final RuntimeException e) {
+                
+                this.result.completeExceptionally(e);
+            }
+        }
+    }
+    
+    /**
+     * The items generated by a simulation, aggregated by item.
+     */
+    private static class Histogram {
+        
+        /**
+         * The total amount of each item that was generated.
+         */
+        private final Object2LongOpenHashMap<Item> totals = new Object2LongOpenHashMap<>();
+        
+        /**
+         * The amount of rolls which generated each item.
+         */
+        private final Object2LongOpenHashMap<Item> hits = new Object2LongOpenHashMap<>();
+        
+        /**
+         * The most of each item that was generated by a single roll.
+         */
+        private final Object2IntOpenHashMap<Item> maximums = new Object2IntOpenHashMap<>();
+        
+        private long rolls;
+        
+        private long emptyRolls;
+        
+        private void record (Object2IntMap<Item> rollCounts) {
+            
+            this.rolls++;
+            
+            if (rollCounts.isEmpty()) {
+                
+                this.emptyRolls++;
+            }
+            
+            for (final Object2IntMap.Entry<Item> entry : rollCounts.object2IntEntrySet()) {
+                
+                final Item item = entry.getKey();
+                final int count = entry.getIntValue();
+                this.totals.addTo(item, count);
+                this.hits.addTo(item, 1);
+                
+                if (count > this.maximums.getInt(item)) {
+                    
+                    this.maximums.put(item, count);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
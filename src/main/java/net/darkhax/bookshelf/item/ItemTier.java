@@ -7,6 +7,11 @@
  */
 package net.darkhax.bookshelf.item;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.function.Supplier;
 
 import net.darkhax.bookshelf.util.RecipeUtils;
@@ -14,13 +19,21 @@ import net.minecraft.item.IItemTier;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.tags.ItemTags;
 import net.minecraft.tags.Tag;
 
 /**
- * A basic implementation of IItemTier.
+ * A basic implementation of IItemTier. The repair ingredient is created once per tag load, and
+ * reused until the item tags are reloaded.
  */
 public class ItemTier implements IItemTier {
     
+    /**
+     * Every tier that has been created. Tiers are weakly referenced so they can still be
+     * garbage collected.
+     */
+    private static final Set<ItemTier> TIERS = Collections.newSetFromMap(new WeakHashMap<>());
+    
     /**
      * The maximum amount of durability.
      */
@@ -51,6 +64,11 @@ public class ItemTier implements IItemTier {
      */
     private final Supplier<Ingredient> repairSupplier;
     
+    /**
+     * The cached repair ingredient, and the tag generation it was created with.
+     */
+    private volatile RepairMaterial repairMaterial;
+    
     @SafeVarargs
     public ItemTier(int maxUses, float efficiency, float damage, int harvestLevel, int enchantability, Tag<Item>... repairItems) {
         
@@ -80,6 +98,11 @@ public class ItemTier implements IItemTier {
         this.harvestLevel = harvestLevel;
         this.enchantability = enchantability;
         this.repairSupplier = repairItems;
+        
+        synchronized (TIERS) {
+            
+            TIERS.add(this);
+        }
     }
     
     @Override
@@ -115,6 +138,50 @@ public class ItemTier implements IItemTier {
     @Override
     public Ingredient getRepairMaterial () {
         
-        return this.repairSupplier.get();
+        final int generation = ItemTags.getGeneration();
+        RepairMaterial material = this.repairMaterial;
+        
+        if (material == null || material.generation != generation) {
+            
+            material = new RepairMaterial(this.repairSupplier.get(), generation);
+            this.repairMaterial = material;
+        }
+        
+        return material.ingredient;
+    }
+    
+    /**
+     * Creates the repair ingredients of every tier that has been created, and resolves the
+     * items they match. This is used after tags have been loaded so the work is not done the
+     * first time a tier is repaired.
+     */
+    public static void refreshAll () {
+        
+        final List<ItemTier> tiers;
+        
+        synchronized (TIERS) {
+            
+            tiers = new ArrayList<>(TIERS);
+        }
+        
+        for (final ItemTier tier : tiers) {
+            
+            tier.getRepairMaterial().getMatchingStacks();
+        }
+    }
+    
+    /**
+     * A repair ingredient and the tag generation it was created with.
+     */
+    private static class RepairMaterial {
+        
+        private final Ingredient ingredient;
+        private final int generation;
+        
+        private RepairMaterial(Ingredient ingredient, int generation) {
+            
+            this.ingredient = ingredient;
+            this.generation = generation;
+        }
     }
-}
+}
\ No newline at end of file
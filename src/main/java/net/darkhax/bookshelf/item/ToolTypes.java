@@ -0,0 +1,195 @@
+/**
+ * This class was created by <Darkhax>. It is distributed as part of Bookshelf. You can find
+ * the original source here: https://github.com/Darkhax-Minecraft/Bookshelf
+ *
+ * Bookshelf is Open Source and distributed under the GNU Lesser General Public License version
+ * 2.1.
+ */
+package net.darkhax.bookshelf.item;
+
+import net.minecraft.item.AxeItem;
+import net.minecraft.item.HoeItem;
+import net.minecraft.item.Item;
+import net.minecraft.item.PickaxeItem;
+import net.minecraft.item.ShovelItem;
+import net.minecraft.item.SwordItem;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.tags.Tag;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.registry.Registry;
+
+/**
+ * Classifies items by the type of tool they are. An item is a type of tool if it extends the
+ * vanilla class for that tool, or if it is in the forge tag for that tool. The type of every
+ * item is calculated at once and stored as a byte of flags indexed by the item's registry id,
+ * so classifying an item is a single array read. The flags are recalculated automatically
+ * when item tags are reloaded.
+ */
+public final class ToolTypes {
+    
+    public static final byte HOE = 1;
+    
+    public static final byte PICKAXE = 1 << 1;
+    
+    public static final byte AXE = 1 << 2;
+    
+    public static final byte SHOVEL = 1 << 3;
+    
+    public static final byte SWORD = 1 << 4;
+    
+    private static final Tag<Item> TAG_HOES = itemTag("hoes");
+    private static final Tag<Item> TAG_TOOL_HOES = itemTag("tools/hoes");
+    private static final Tag<Item> TAG_PICKAXES = itemTag("pickaxes");
+    private static final Tag<Item> TAG_TOOL_PICKAXES = itemTag("tools/pickaxes");
+    private static final Tag<Item> TAG_AXES = itemTag("axes");
+    private static final Tag<Item> TAG_TOOL_AXES = itemTag("tools/axes");
+    private static final Tag<Item> TAG_SHOVELS = itemTag("shovels");
+    private static final Tag<Item> TAG_TOOL_SHOVELS = itemTag("tools/shovels");
+    private static final Tag<Item> TAG_SWORDS = itemTag("swords");
+    private static final Tag<Item> TAG_TOOL_SWORDS = itemTag("tools/swords");
+    
+    /**
+     * The calculated tool types of every item, and the tag generation they were calculated
+     * with. This is replaced rather than modified, so it can be read from any thread.
+     */
+    private static volatile ToolIndex index;
+    
+    /**
+     * Gets the tool type flags of an item.
+     * 
+     * @param item The item to classify.
+     * @return The tool type flags of the item. Zero if the item is not a tool.
+     */
+    public static byte of (Item item) {
+        
+        final byte[] flags = getIndex().flags;
+        final int id = Registry.ITEM.getId(item);
+        return id >= 0 && id < flags.length ? flags[id] : classify(item);
+    }
+    
+    /**
+     * Checks if an item is a type of tool.
+     * 
+     * @param item The item to check.
+     * @param type The tool type flag, for example {@link #PICKAXE}.
+     * @return Whether or not the item is that type of tool.
+     */
+    public static boolean is (Item item, byte type) {
+        
+        return (of(item) & type) != 0;
+    }
+    
+    /**
+     * Recalculates the tool types of every item if they were not calculated with the current
+     * item tags. This is done automatically when an item is classified, but can be called
+     * early to avoid doing the work later.
+     */
+    public static void refresh () {
+        
+        getIndex();
+    }
+    
+    /**
+     * Gets the current tool index, calculating it if it is missing or stale.
+     * 
+     * @return The current tool index.
+     */
+    private static ToolIndex getIndex () {
+        
+        final int generation = ItemTags.getGeneration();
+        ToolIndex current = index;
+        
+        if (current == null || current.generation != generation) {
+            
+            synchronized (ToolTypes.class) {
+                
+                current = index;
+                
+                if (current == null || current.generation != generation) {
+                    
+                    int maxId = -1;
+                    
+                    for (final Item item : Registry.ITEM) {
+                        
+                        maxId = Math.max(maxId, Registry.ITEM.getId(item));
+                    }
+                    
+                    final byte[] flags = new byte[maxId + 1];
+                    
+                    for (final Item item : Registry.ITEM) {
+                        
+                        final int id = Registry.ITEM.getId(item);
+                        
+                        if (id >= 0) {
+                            
+                            flags[id] = classify(item);
+                        }
+                    }
+                    
+                    current = new ToolIndex(flags, generation);
+                    index = current;
+                }
+            }
+        }
+        
+        return current;
+    }
+    
+    /**
+     * Calculates the tool type flags of an item without using the index.
+     * 
+     * @param item The item to classify.
+     * @return The tool type flags of the item.
+     */
+    private static byte classify (Item item) {
+        
+        byte flags = 0;
+        
+        if (item instanceof HoeItem || TAG_HOES.contains(item) || TAG_TOOL_HOES.contains(item)) {
+            
+            flags |= HOE;
+        }
+        
+        if (item instanceof PickaxeItem || TAG_PICKAXES.contains(item) || TAG_TOOL_PICKAXES.contains(item)) {
+            
+            flags |= PICKAXE;
+        }
+        
+        if (item instanceof AxeItem || TAG_AXES.contains(item) || TAG_TOOL_AXES.contains(item)) {
+            
+            flags |= AXE;
+        }
+        
+        if (item instanceof ShovelItem || TAG_SHOVELS.contains(item) || TAG_TOOL_SHOVELS.contains(item)) {
+            
+            flags |= SHOVEL;
+        }
+        
+        if (item instanceof SwordItem || TAG_SWORDS.contains(item) || TAG_TOOL_SWORDS.contains(item)) {
+            
+            flags |= SWORD;
+        }
+        
+        return flags;
+    }
+    
+    private static Tag<Item> itemTag (String path) {
+        
+        return new ItemTags.Wrapper(new ResourceLocation("forge", path));
+    }
+    
+    /**
+     * The tool type flags of every item, indexed by registry id.
+     */
+    private static class ToolIndex {
+        
+        private final byte[] flags;
+        private final int generation;
+        
+        private ToolIndex(byte[] flags, int generation) {
+            
+            this.flags = flags;
+            this.generation = generation;
+        }
+    }
+}
\ No newline at end of file
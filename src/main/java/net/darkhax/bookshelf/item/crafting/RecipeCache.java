@@ -0,0 +1,457 @@
+/**
+ * This class was created by <Darkhax>. It is distributed as part of Bookshelf. You can find
+ * the original source here: https://github.com/Darkhax-Minecraft/Bookshelf
+ *
+ * Bookshelf is Open Source and distributed under the GNU Lesser General Public License version
+ * 2.1.
+ */
+package net.darkhax.bookshelf.item.crafting;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.io.IOUtils;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Bytes;
+
+import io.netty.buffer.Unpooled;
+import net.darkhax.bookshelf.Bookshelf;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.IRecipeSerializer;
+import net.minecraft.item.crafting.IRecipeType;
+import net.minecraft.item.crafting.RecipeManager;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.profiler.IProfiler;
+import net.minecraft.resources.IFutureReloadListener;
+import net.minecraft.resources.IResource;
+import net.minecraft.resources.IResourceManager;
+import net.minecraft.resources.SimpleReloadableResourceManager;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.Util;
+import net.minecraft.util.registry.Registry;
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
+import net.minecraftforge.registries.ForgeRegistries;
+
+/**
+ * An opt-in cache of the recipes loaded by the server. After the recipes have been loaded from
+ * JSON they are written in their packet form to a file in the world directory, along with a
+ * hash of the recipe and item tag files, the loaded mods, and the numeric ids of every
+ * registry. When the server loads recipes again with the same hash, the recipes are read using
+ * the packet readers of their serializers, and the JSON is never parsed.
+ * 
+ * The cache replaces the recipe manager in the reload listeners of the server, and falls back
+ * to the recipe manager whenever the cache is missing, stale, or can not be read. The cache is
+ * never used while any recipe file has a conditions block, because conditions can read mod
+ * configs which are not part of the hash.
+ * 
+ * The hash only covers the inputs listed above. Recipes are only as complete as their packet
+ * form, and a serializer or ingredient which reads anything else while loading, such as a
+ * config file, will be served stale recipes when that input changes. This should only be
+ * enabled for packs where every recipe serializer writes all of its data to packets and
+ * depends on nothing but its JSON. The cache can be enabled with
+ * {@link #setEnabled(boolean)} or with the bookshelf.recipe_cache system property.
+ */
+public class RecipeCache implements IFutureReloadListener {
+    
+    /**
+     * The first bytes of a cache file.
+     */
+    private static final int MAGIC = 0x42534843;
+    
+    /**
+     * The version of the cache format. This is changed when the format changes, so old cache
+     * files are not read.
+     */
+    private static final int FORMAT_VERSION = 1;
+    
+    /**
+     * The resource directories which can change the loaded recipes.
+     */
+    private static final String[] HASHED_DIRECTORIES = { "recipes", "tags/items" };
+    
+    /**
+     * The key of a forge conditions block, as it appears in a JSON file.
+     */
+    private static final byte[] CONDITIONS_KEY = "\"conditions\"".getBytes(StandardCharsets.UTF_8);
+    
+    /**
+     * Whether or not the cache should be used.
+     */
+    private static boolean enabled = Boolean.getBoolean("bookshelf.recipe_cache");
+    
+    /**
+     * The recipe manager that this cache loads recipes for.
+     */
+    private final RecipeManager recipeManager;
+    
+    /**
+     * The file that recipes are cached in.
+     */
+    private final Path cacheFile;
+    
+    private RecipeCache(RecipeManager recipeManager, Path cacheFile) {
+        
+        this.recipeManager = recipeManager;
+        this.cacheFile = cacheFile;
+    }
+    
+    @Override
+    public CompletableFuture<Void> reload (IStage stage, IResourceManager resourceManager, IProfiler preparationsProfiler, IProfiler reloadProfiler, Executor backgroundExecutor, Executor gameExecutor) {
+        
+        return CompletableFuture.supplyAsync( () -> this.readCache(resourceManager), backgroundExecutor).thenCompose(cache -> {
+            
+            if (cache.hash == null) {
+                
+                return this.recipeManager.reload(stage, resourceManager, preparationsProfiler, reloadProfiler, backgroundExecutor, gameExecutor);
+            }
+            
+            if (cache.recipes != null) {
+                
+                return stage.markCompleteAwaitingOthers(cache.recipes).thenAcceptAsync(recipes -> {
+                    
+                    this.recipeManager.recipes = recipes;
+                    Bookshelf.LOG.info("Loaded {} recipes from the recipe cache.", this.recipeManager.getRecipes().size());
+                }, gameExecutor);
+            }
+            
+            // The recipe manager marks the stage complete itself.
+            final CompletableFuture<Void> reload = this.recipeManager.reload(stage, resourceManager, preparationsProfiler, reloadProfiler, backgroundExecutor, gameExecutor);
+            
+            // The recipes are taken on the game thread as soon as they are applied, but the cache
+            // is encoded and written afterwards so the reload does not wait for it.
+            reload.thenApply(ignored -> this.recipeManager.recipes).thenAcceptAsync(recipes -> this.writeCache(this.encodeRecipes(cache.hash, recipes)), Util.getServerExecutor());
+            return reload;
+        });
+    }
+    
+    /**
+     * Hashes the current resources and reads the cached recipes if the cache file matches.
+     * 
+     * @param resourceManager The resource manager to hash the resources of.
+     * @return The hash of the resources, and the cached recipes if they could be read. The hash
+     *         is null if the recipes can not be cached.
+     */
+    private CacheResult readCache (IResourceManager resourceManager) {
+        
+        final byte[] hash = hashResources(resourceManager);
+        
+        if (hash != null && Files.isRegularFile(this.cacheFile)) {
+            
+            try {
+                
+                // The file is read into memory rather than mapped, so it is not held open and can be replaced.
+                final PacketBuffer buffer = new PacketBuffer(Unpooled.wrappedBuffer(Files.readAllBytes(this.cacheFile)));
+                
+                if (buffer.readInt() == MAGIC && buffer.readInt() == FORMAT_VERSION && Arrays.equals(buffer.readByteArray(), hash)) {
+                    
+                    return new CacheResult(hash, decodeRecipes(buffer));
+                }
+            }
+            
+            catch (final Exception e) {
+                
+                Bookshelf.LOG.error("Failed to read the recipe cache {}. Recipes will be loaded from JSON.", this.cacheFile);
+                Bookshelf.LOG.catching(e);
+            }
+        }
+        
+        return new CacheResult(hash, null);
+    }
+    
+    /**
+     * Writes loaded recipes to a packet buffer.
+     * 
+     * @param hash The hash of the resources the recipes were loaded from.
+     * @param recipeMap The recipes grouped by recipe type, as they were applied to the recipe
+     *        manager.
+     * @return A buffer containing the encoded recipes, or null if a recipe could not be
+     *         written.
+     */
+    @Nullable
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private PacketBuffer encodeRecipes (byte[] hash, Map<IRecipeType<?>, Map<ResourceLocation, IRecipe<?>>> recipeMap) {
+        
+        final PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        buffer.writeInt(MAGIC);
+        buffer.writeInt(FORMAT_VERSION);
+        buffer.writeByteArray(hash);
+        
+        final List<IRecipe<?>> recipes = recipeMap.values().stream().flatMap(typeRecipes -> typeRecipes.values().stream()).collect(Collectors.toList());
+        buffer.writeVarInt(recipes.size());
+        
+        for (final IRecipe<?> recipe : recipes) {
+            
+            try {
+                
+                final IRecipeSerializer serializer = recipe.getSerializer();
+                buffer.writeResourceLocation(serializer.getRegistryName());
+                buffer.writeResourceLocation(recipe.getId());
+                serializer.write(buffer, recipe);
+            }
+            
+            catch (final Exception e) {
+                
+                Bookshelf.LOG.error("Could not write recipe {} to the recipe cache. The cache will not be used.", recipe.getId());
+                Bookshelf.LOG.catching(e);
+                buffer.release();
+                return null;
+            }
+        }
+        
+        return buffer;
+    }
+    
+    /**
+     * Writes encoded recipes to the cache file. The file is written next to the cache and then
+     * moved into place, so a partially written cache is never read. Writes are synchronized so
+     * two reloads in a row do not write the same temporary file at once.
+     * 
+     * @param buffer The encoded recipes. Nothing is written if this is null.
+     */
+    private synchronized void writeCache (@Nullable PacketBuffer buffer) {
+        
+        if (buffer == null) {
+            
+            return;
+        }
+        
+        final Path tempFile = this.cacheFile.resolveSibling(this.cacheFile.getFileName() + ".tmp");
+        
+        try {
+            
+            Files.createDirectories(this.cacheFile.getParent());
+            
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                
+                final ByteBuffer data = buffer.nioBuffer();
+                
+                while (data.hasRemaining()) {
+                    
+                    channel.write(data);
+                }
+            }
+            
+            Files.move(tempFile, this.cacheFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        
+        catch (final IOException e) {
+            
+            Bookshelf.LOG.error("Failed to write the recipe cache {}.", this.cacheFile);
+            Bookshelf.LOG.catching(e);
+        }
+        
+        finally {
+            
+            buffer.release();
+        }
+    }
+    
+    /**
+     * Reads recipes from a cache buffer, using the packet readers of their serializers.
+     * 
+     * @param buffer The buffer to read from. The header must have already been read.
+     * @return The recipes grouped by recipe type, in the form used by the recipe manager.
+     */
+    private static Map<IRecipeType<?>, Map<ResourceLocation, IRecipe<?>>> decodeRecipes (PacketBuffer buffer) {
+        
+        final Map<IRecipeType<?>, ImmutableMap.Builder<ResourceLocation, IRecipe<?>>> builders = new HashMap<>();
+        final int recipeCount = buffer.readVarInt();
+        
+        for (int i = 0; i < recipeCount; i++) {
+            
+            final ResourceLocation serializerId = buffer.readResourceLocation();
+            final ResourceLocation recipeId = buffer.readResourceLocation();
+            final IRecipeSerializer<?> serializer = ForgeRegistries.RECIPE_SERIALIZERS.getValue(serializerId);
+            
+            if (serializer == null) {
+                
+                throw new IllegalStateException("Unknown recipe serializer " + serializerId + " for recipe " + recipeId);
+            }
+            
+            final IRecipe<?> recipe = serializer.read(recipeId, buffer);
+            builders.computeIfAbsent(recipe.getType(), type -> ImmutableMap.builder()).put(recipeId, recipe);
+        }
+        
+        final ImmutableMap.Builder<IRecipeType<?>, Map<ResourceLocation, IRecipe<?>>> recipes = ImmutableMap.builder();
+        builders.forEach( (type, builder) -> recipes.put(type, builder.build()));
+        return recipes.build();
+    }
+    
+    /**
+     * Hashes everything that can change the recipes that are loaded. This includes the
+     * contents of every recipe and item tag file, the loaded mods and their versions, and the
+     * numeric ids of every registry, as serializers may write the id of any registry entry to
+     * the packet form of a recipe.
+     * 
+     * @param resourceManager The resource manager to read resources from.
+     * @return The hash of the resources, or null if a file has a conditions block.
+     */
+    @Nullable
+    private static byte[] hashResources (IResourceManager resourceManager) {
+        
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putInt(FORMAT_VERSION);
+        
+        ModList.get().getMods().forEach(mod -> hasher.putUnencodedChars(mod.getModId()).putUnencodedChars(mod.getVersion().toString()));
+        
+        final List<ResourceLocation> registryNames = new ArrayList<>(Registry.REGISTRY.keySet());
+        registryNames.sort(null);
+        
+        for (final ResourceLocation registryName : registryNames) {
+            
+            hasher.putUnencodedChars(registryName.toString());
+            hashRegistry(hasher, Registry.REGISTRY.getOrDefault(registryName));
+        }
+        
+        for (final String directory : HASHED_DIRECTORIES) {
+            
+            final List<ResourceLocation> locations = new ArrayList<>(resourceManager.getAllResourceLocations(directory, path -> path.endsWith(".json")));
+            locations.sort(null);
+            
+            for (final ResourceLocation location : locations) {
+                
+                hasher.putUnencodedChars(location.toString());
+                
+                try {
+                    
+                    for (final IResource resource : resourceManager.getAllResources(location)) {
+                        
+                        try (InputStream stream = resource.getInputStream()) {
+                            
+                            final byte[] data = IOUtils.toByteArray(stream);
+                            
+                            if (Bytes.indexOf(data, CONDITIONS_KEY) >= 0) {
+                                
+                                Bookshelf.LOG.info("The recipe cache will not be used, because {} has a conditions block which may depend on mod configs.", location);
+                                return null;
+                            }
+                            
+                            hasher.putBytes(data);
+                        }
+                        
+                        finally {
+                            
+                            IOUtils.closeQuietly(resource);
+                        }
+                    }
+                }
+                
+                catch (final IOException e) {
+                    
+                    // An unreadable file still changes the hash, so a later fix is noticed.
+                    hasher.putUnencodedChars(e.toString());
+                }
+            }
+        }
+        
+        return hasher.hash().asBytes();
+    }
+    
+    /**
+     * Hashes the name and numeric id of every entry in a registry.
+     * 
+     * @param <T> The type of the registry entries.
+     * @param hasher The hasher to write to.
+     * @param registry The registry to hash.
+     */
+    private static <T> void hashRegistry (Hasher hasher, Registry<T> registry) {
+        
+        for (final T entry : registry) {
+            
+            hasher.putUnencodedChars(String.valueOf(registry.getKey(entry))).putInt(registry.getId(entry));
+        }
+    }
+    
+    /**
+     * Replaces the recipe manager of a server with a recipe cache, if the cache is enabled.
+     * This must be called before the server loads its data packs.
+     * 
+     * @param server The server to install the cache on.
+     */
+    public static void install (MinecraftServer server) {
+        
+        if (!enabled) {
+            
+            return;
+        }
+        
+        if (!(server.getResourceManager() instanceof SimpleReloadableResourceManager)) {
+            
+            Bookshelf.LOG.warn("The recipe cache can not be used with resource manager {}.", server.getResourceManager().getClass().getName());
+            return;
+        }
+        
+        final SimpleReloadableResourceManager resourceManager = (SimpleReloadableResourceManager) server.getResourceManager();
+        final RecipeManager recipeManager = server.getRecipeManager();
+        final File cacheFile = server.getActiveAnvilConverter().getFile(server.getFolderName(), "bookshelf/recipe_cache.bin");
+        final RecipeCache cache = new RecipeCache(recipeManager, cacheFile.toPath());
+        
+        try {
+            
+            // Both lists are found before either is changed, so a failure leaves the manager as it was.
+            final List<IFutureReloadListener> reloadListeners = ObfuscationReflectionHelper.getPrivateValue(SimpleReloadableResourceManager.class, resourceManager, "field_199015_d");
+            final List<IFutureReloadListener> initTaskQueue = ObfuscationReflectionHelper.getPrivateValue(SimpleReloadableResourceManager.class, resourceManager, "field_219539_d");
+            reloadListeners.replaceAll(listener -> listener == recipeManager ? cache : listener);
+            initTaskQueue.replaceAll(listener -> listener == recipeManager ? cache : listener);
+        }
+        
+        catch (final RuntimeException e) {
+            
+            Bookshelf.LOG.error("Failed to install the recipe cache. Recipes will be loaded from JSON.");
+            Bookshelf.LOG.catching(e);
+        }
+    }
+    
+    /**
+     * Sets whether or not the recipe cache is used for servers started after this call. The
+     * cache is only safe when every recipe is a pure function of its JSON, the item tags, the
+     * loaded mods, and the registries. A recipe serializer or ingredient which reads a config
+     * file while loading will keep its old result until a recipe file changes.
+     * 
+     * @param useCache Whether or not the cache should be used.
+     */
+    public static void setEnabled (boolean useCache) {
+        
+        enabled = useCache;
+    }
+    
+    /**
+     * The result of reading the cache.
+     */
+    private static class CacheResult {
+        
+        private final byte[] hash;
+        
+        @Nullable
+        private final Map<IRecipeType<?>, Map<ResourceLocation, IRecipe<?>>> recipes;
+        
+        private CacheResult(byte[] hash, @Nullable Map<IRecipeType<?>, Map<ResourceLocation, IRecipe<?>>> recipes) {
+            
+            this.hash = hash;
+            this.recipes = recipes;
+        }
+    }
+}
\ No newline at end of file
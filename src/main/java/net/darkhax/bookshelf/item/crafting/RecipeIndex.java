@@ -0,0 +1,188 @@
+/**
+ * This class was created by <Darkhax>. It is distributed as part of Bookshelf. You can find
+ * the original source here: https://github.com/Darkhax-Minecraft/Bookshelf
+ *
+ * Bookshelf is Open Source and distributed under the GNU Lesser General Public License version
+ * 2.1.
+ */
+package net.darkhax.bookshelf.item.crafting;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.MapMaker;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.IRecipeType;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.item.crafting.RecipeManager;
+import net.minecraft.util.ResourceLocation;
+
+/**
+ * An index of the recipes in a recipe manager, grouped by recipe type and keyed by the items
+ * they use and produce. The index for a recipe type is built the first time it is used, and
+ * the whole index is replaced when the recipes of the recipe manager are reloaded. This works
+ * for both the server recipe manager and the recipe manager synced to the client.
+ */
+public class RecipeIndex {
+    
+    /**
+     * The index of each recipe manager. Managers are weakly referenced and compared by
+     * identity.
+     */
+    private static final Map<RecipeManager, RecipeIndex> INDEXES = new MapMaker().weakKeys().makeMap();
+    
+    /**
+     * The order used for the sorted recipe lists.
+     */
+    private static final Comparator<IRecipe<?>> OUTPUT_ORDER = Comparator.comparing(recipe -> recipe.getRecipeOutput().getTranslationKey());
+    
+    /**
+     * The recipe map of the recipe manager that this index was built from.
+     */
+    private final Map<IRecipeType<?>, Map<ResourceLocation, IRecipe<?>>> recipeSource;
+    
+    /**
+     * The index of each recipe type that has been used.
+     */
+    private final Map<IRecipeType<?>, TypeIndex<?>> types = new IdentityHashMap<>();
+    
+    private RecipeIndex(Map<IRecipeType<?>, Map<ResourceLocation, IRecipe<?>>> recipeSource) {
+        
+        this.recipeSource = recipeSource;
+    }
+    
+    /**
+     * Gets all recipes of a recipe type, sorted by the translation key of their output.
+     * 
+     * @param <T> The type of the recipe.
+     * @param recipeType The recipe type.
+     * @return An unmodifiable list of recipes for the recipe type.
+     */
+    public <T extends IRecipe<?>> List<T> getRecipes (IRecipeType<T> recipeType) {
+        
+        return this.getTypeIndex(recipeType).recipes;
+    }
+    
+    /**
+     * Gets all recipes of a recipe type which have an ingredient that accepts an item.
+     * 
+     * @param <T> The type of the recipe.
+     * @param recipeType The recipe type.
+     * @param input The input item.
+     * @return An unmodifiable list of recipes which use the item, sorted by the translation key
+     *         of their output.
+     */
+    public <T extends IRecipe<?>> List<T> getRecipesWithInput (IRecipeType<T> recipeType, Item input) {
+        
+        return this.getTypeIndex(recipeType).byInput.getOrDefault(input, Collections.emptyList());
+    }
+    
+    /**
+     * Gets all recipes of a recipe type which output an item.
+     * 
+     * @param <T> The type of the recipe.
+     * @param recipeType The recipe type.
+     * @param output The output item.
+     * @return An unmodifiable list of recipes which produce the item, sorted by the translation
+     *         key of their output.
+     */
+    public <T extends IRecipe<?>> List<T> getRecipesWithOutput (IRecipeType<T> recipeType, Item output) {
+        
+        return this.getTypeIndex(recipeType).byOutput.getOrDefault(output, Collections.emptyList());
+    }
+    
+    /**
+     * Gets the index of a recipe type, building it if it has not been built yet.
+     * 
+     * @param <T> The type of the recipe.
+     * @param recipeType The recipe type.
+     * @return The index of the recipe type.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private <T extends IRecipe<?>> TypeIndex<T> getTypeIndex (IRecipeType<T> recipeType) {
+        
+        synchronized (this.types) {
+            
+            return (TypeIndex<T>) this.types.computeIfAbsent(recipeType, type -> new TypeIndex((Collection) this.recipeSource.getOrDefault(type, Collections.emptyMap()).values()));
+        }
+    }
+    
+    /**
+     * Gets the recipe index for a recipe manager. If the recipes of the manager have been
+     * reloaded since the index was built, a new index will be created.
+     * 
+     * @param manager The recipe manager.
+     * @return The recipe index for the recipe manager.
+     */
+    public static RecipeIndex get (RecipeManager manager) {
+        
+        RecipeIndex index = INDEXES.get(manager);
+        
+        if (index == null || index.recipeSource != manager.recipes) {
+            
+            index = new RecipeIndex(manager.recipes);
+            INDEXES.put(manager, index);
+        }
+        
+        return index;
+    }
+    
+    /**
+     * The recipes of a single recipe type, keyed by the items they use and produce.
+     * 
+     * @param <T> The type of the recipe.
+     */
+    private static class TypeIndex<T extends IRecipe<?>> {
+        
+        private final List<T> recipes;
+        private final Map<Item, List<T>> byInput = new Reference2ObjectOpenHashMap<>();
+        private final Map<Item, List<T>> byOutput = new Reference2ObjectOpenHashMap<>();
+        
+        private TypeIndex(Collection<T> recipes) {
+            
+            final List<T> sorted = new ArrayList<>(recipes);
+            sorted.sort(OUTPUT_ORDER);
+            this.recipes = Collections.unmodifiableList(sorted);
+            
+            final Set<Item> inputs = new ReferenceOpenHashSet<>();
+            
+            for (final T recipe : sorted) {
+                
+                final ItemStack output = recipe.getRecipeOutput();
+                
+                if (output != null && !output.isEmpty()) {
+                    
+                    this.byOutput.computeIfAbsent(output.getItem(), item -> new ArrayList<>()).add(recipe);
+                }
+                
+                // Each recipe is only added once per item, even if several ingredients accept it.
+                inputs.clear();
+                
+                for (final Ingredient ingredient : recipe.getIngredients()) {
+                    
+                    for (final ItemStack stack : ingredient.getMatchingStacks()) {
+                        
+                        if (!stack.isEmpty() && inputs.add(stack.getItem())) {
+                            
+                            this.byInput.computeIfAbsent(stack.getItem(), item -> new ArrayList<>()).add(recipe);
+                        }
+                    }
+                }
+            }
+            
+            this.byInput.replaceAll( (item, list) -> Collections.unmodifiableList(list));
+            this.byOutput.replaceAll( (item, list) -> Collections.unmodifiableList(list));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,213 @@
+/**
+ * This class was created by <Darkhax>. It is distributed as part of Bookshelf. You can find
+ * the original source here: https://github.com/Darkhax-Minecraft/Bookshelf
+ *
+ * Bookshelf is Open Source and distributed under the GNU Lesser General Public License version
+ * 2.1.
+ */
+package net.darkhax.bookshelf.item.crafting;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.inventory.IInventory;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.IRecipeType;
+import net.minecraft.item.crafting.RecipeManager;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.world.World;
+
+/**
+ * A cache of the outputs of single item recipes for a recipe type. The first time an item is
+ * looked up the recipe manager is searched for every recipe that matches the item, and the
+ * outputs of those recipes are kept. Items which have no matching recipes are cached as well.
+ * The cache is cleared automatically when the recipes of the recipe manager are reloaded.
+ */
+public class RecipeOutputCache {
+    
+    /**
+     * The caches for each recipe type.
+     */
+    private static final Map<IRecipeType<?>, RecipeOutputCache> CACHES = new IdentityHashMap<>();
+    
+    /**
+     * The maximum amount of inputs to cache for one recipe type before the cache is cleared.
+     * This prevents items with many different NBT values from growing the cache forever.
+     */
+    private static final int MAX_ENTRIES = 4096;
+    
+    /**
+     * An empty array of outputs, used for inputs that do not match any recipes.
+     */
+    private static final ItemStack[] NO_OUTPUTS = new ItemStack[0];
+    
+    /**
+     * The recipe type being cached.
+     */
+    private final IRecipeType<?> recipeType;
+    
+    /**
+     * The recipe map of the recipe manager that the cache was populated from. When the recipes
+     * are reloaded the manager will hold a new map, and the cache is cleared.
+     */
+    @Nullable
+    private Map<?, ?> recipeSource;
+    
+    /**
+     * The cached outputs for each input.
+     */
+    private final Map<InputKey, ItemStack[]> outputs = new HashMap<>();
+    
+    private RecipeOutputCache(IRecipeType<?> recipeType) {
+        
+        this.recipeType = recipeType;
+    }
+    
+    /**
+     * Gets the outputs of every recipe that matches an input item. Outputs of recipes that do
+     * not have a valid output will be {@link ItemStack#EMPTY}. The returned stacks are shared
+     * and must be copied before being modified or given out.
+     * 
+     * @param input The input item.
+     * @param world The world, used to access the recipe manager and match recipes.
+     * @return The outputs of all matching recipes. Empty if no recipes match.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public synchronized ItemStack[] getOutputs (ItemStack input, World world) {
+        
+        final RecipeManager manager = world.getRecipeManager();
+        
+        if (this.recipeSource != manager.recipes) {
+            
+            this.outputs.clear();
+            this.recipeSource = manager.recipes;
+        }
+        
+        final InputKey key = new InputKey(input);
+        ItemStack[] cachedOutputs = this.outputs.get(key);
+        
+        if (cachedOutputs == null) {
+            
+            final List<IRecipe> matchingRecipes = manager.getRecipes((IRecipeType) this.recipeType, new Inventory(input), world);
+            cachedOutputs = matchingRecipes.isEmpty() ? NO_OUTPUTS : new ItemStack[matchingRecipes.size()];
+            
+            for (int i = 0; i < cachedOutputs.length; i++) {
+                
+                final IRecipe<IInventory> recipe = matchingRecipes.get(i);
+                final ItemStack output = recipe != null ? recipe.getRecipeOutput() : null;
+                cachedOutputs[i] = output != null && !output.isEmpty() ? output.copy() : ItemStack.EMPTY;
+            }
+            
+            if (this.outputs.size() >= MAX_ENTRIES) {
+                
+                this.outputs.clear();
+            }
+            
+            this.outputs.put(key.freeze(), cachedOutputs);
+        }
+        
+        return cachedOutputs;
+    }
+    
+    /**
+     * Clears all cached outputs.
+     */
+    public synchronized void invalidate () {
+        
+        this.outputs.clear();
+        this.recipeSource = null;
+    }
+    
+    /**
+     * Gets the output cache for a recipe type. If one does not exist it will be created.
+     * 
+     * @param recipeType The recipe type.
+     * @return The output cache for the recipe type.
+     */
+    public static RecipeOutputCache get (IRecipeType<?> recipeType) {
+        
+        synchronized (CACHES) {
+            
+            return CACHES.computeIfAbsent(recipeType, RecipeOutputCache::new);
+        }
+    }
+    
+    /**
+     * Clears the cached outputs of all recipe types.
+     */
+    public static void invalidateAll () {
+        
+        synchronized (CACHES) {
+            
+            CACHES.values().forEach(RecipeOutputCache::invalidate);
+        }
+    }
+    
+    /**
+     * A key for an input item. Inputs are considered the same if they have the same item and
+     * the same NBT. The stack size is ignored.
+     */
+    private static class InputKey {
+        
+        private final Item item;
+        
+        @Nullable
+        private final CompoundNBT tag;
+        
+        private final int hash;
+        
+        private InputKey(ItemStack stack) {
+            
+            this(stack.getItem(), stack.getTag());
+        }
+        
+        private InputKey(Item item, @Nullable CompoundNBT tag) {
+            
+            this.item = item;
+            this.tag = tag;
+            this.hash = 31 * System.identityHashCode(item) + (tag != null ? tag.hashCode() : 0);
+        }
+        
+        /**
+         * Creates a copy of the key which does not share the NBT of the original stack, so
+         * changes to that stack can not affect the cache.
+         * 
+         * @return A key that is safe to store.
+         */
+        private InputKey freeze () {
+            
+            return this.tag == null ? this : new InputKey(this.item, this.tag.copy());
+        }
+        
+        @Override
+        public boolean equals (Object obj) {
+            
+            if (this == obj) {
+                
+                return true;
+            }
+            
+            if (obj instanceof InputKey) {
+                
+                final InputKey other = (InputKey) obj;
+                return this.hash == other.hash && this.item == other.item && Objects.equals(this.tag, other.tag);
+            }
+            
+            return false;
+        }
+        
+        @Override
+        public int hashCode () {
+            
+            return this.hash;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+/**
+ * This class was created by <Darkhax>. It is distributed as part of Bookshelf. You can find
+ * the original source here: https://github.com/Darkhax-Minecraft/Bookshelf
+ *
+ * Bookshelf is Open Source and distributed under the GNU Lesser General Public License version
+ * 2.1.
+ */
+package net.darkhax.bookshelf.lib;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.item.Item;
+import net.minecraftforge.registries.ForgeRegistries;
+
+/**
+ * An index of registered items grouped by the namespace of their registry name. Each namespace
+ * is given an ordinal, so checking the namespace of an item is a map lookup followed by an int
+ * compare instead of a string compare. Bookshelf builds the index when loading is complete,
+ * after every item has been registered. If it is used before then, a partial index is built
+ * and later replaced. Namespace ordinals are never reassigned, so an ordinal stays valid when
+ * the index is rebuilt.
+ */
+public final class ItemNamespaceIndex {
+    
+    /**
+     * The ordinal used for namespaces and items which are not in the index.
+     */
+    public static final int UNKNOWN = -1;
+    
+    /**
+     * The ordinal of each namespace. Guarded by the class lock.
+     */
+    private static final Object2IntOpenHashMap<String> NAMESPACE_IDS = new Object2IntOpenHashMap<>();
+    
+    static {
+        
+        NAMESPACE_IDS.defaultReturnValue(UNKNOWN);
+    }
+    
+    /**
+     * The current index. This is null until the index is first used.
+     */
+    private static volatile ItemNamespaceIndex instance;
+    
+    /**
+     * The namespace ordinal of each item.
+     */
+    private final Reference2IntOpenHashMap<Item> itemNamespaces = new Reference2IntOpenHashMap<>();
+    
+    /**
+     * The items of each namespace, indexed by the namespace ordinal.
+     */
+    private final List<List<Item>> items = new ArrayList<>();
+    
+    private ItemNamespaceIndex(Collection<Item> registeredItems) {
+        
+        this.itemNamespaces.defaultReturnValue(UNKNOWN);
+        
+        for (final Item item : registeredItems) {
+            
+            final int namespaceId = getOrCreateNamespaceId(item.getRegistryName().getNamespace());
+            
+            while (this.items.size() <= namespaceId) {
+                
+                this.items.add(new ArrayList<>());
+            }
+            
+            this.itemNamespaces.put(item, namespaceId);
+            this.items.get(namespaceId).add(item);
+        }
+        
+        this.items.replaceAll(Collections::unmodifiableList);
+    }
+    
+    /**
+     * Gets the ordinal of a namespace. A namespace which has not been seen before is given a
+     * new ordinal, so items registered under it later will still match it.
+     * 
+     * @param namespace The namespace to look up.
+     * @return The ordinal of the namespace.
+     */
+    public int getNamespaceId (String namespace) {
+        
+        return getOrCreateNamespaceId(namespace);
+    }
+    
+    /**
+     * Gets the namespace ordinal of an item.
+     * 
+     * @param item The item to look up.
+     * @return The ordinal of the item's namespace, or {@link #UNKNOWN} if the item is not
+     *         registered.
+     */
+    public int getNamespaceId (Item item) {
+        
+        return this.itemNamespaces.getInt(item);
+    }
+    
+    /**
+     * Checks if an item belongs to a namespace.
+     * 
+     * @param item The item to check.
+     * @param namespaceId The ordinal of the namespace.
+     * @return Whether or not the item belongs to the namespace.
+     */
+    public boolean isInNamespace (Item item, int namespaceId) {
+        
+        return namespaceId != UNKNOWN && this.itemNamespaces.getInt(item) == namespaceId;
+    }
+    
+    /**
+     * Gets all items registered under a namespace.
+     * 
+     * @param namespace The namespace to look up.
+     * @return An unmodifiable list of items in the namespace. Empty if no items use it.
+     */
+    public List<Item> getItems (String namespace) {
+        
+        final int namespaceId;
+        
+        synchronized (ItemNamespaceIndex.class) {
+            
+            namespaceId = NAMESPACE_IDS.getInt(namespace);
+        }
+        
+        return namespaceId == UNKNOWN || namespaceId >= this.items.size() ? Collections.emptyList() : this.items.get(namespaceId);
+    }
+    
+    /**
+     * Gets the item namespace index, building it if it has not been built yet.
+     * 
+     * @return The item namespace index.
+     */
+    public static ItemNamespaceIndex get () {
+        
+        ItemNamespaceIndex index = instance;
+        
+        if (index == null) {
+            
+            synchronized (ItemNamespaceIndex.class) {
+                
+                index = instance;
+                
+                if (index == null) {
+                    
+                    index = new ItemNamespaceIndex(ForgeRegistries.ITEMS.getValues());
+                    instance = index;
+                }
+            }
+        }
+        
+        return index;
+    }
+    
+    /**
+     * Replaces the index with one built from the current item registry. Bookshelf calls this
+     * when loading is complete, once no more items can be registered.
+     */
+    public static void rebuild () {
+        
+        synchronized (ItemNamespaceIndex.class) {
+            
+            instance = new ItemNamespaceIndex(ForgeRegistries.ITEMS.getValues());
+        }
+    }
+    
+    /**
+     * Gets the ordinal of a namespace, assigning a new one if the namespace has not been seen
+     * before.
+     * 
+     * @param namespace The namespace to look up.
+     * @return The ordinal of the namespace.
+     */
+    private static synchronized int getOrCreateNamespaceId (String namespace) {
+        
+        int namespaceId = NAMESPACE_IDS.getInt(namespace);
+        
+        if (namespaceId == UNKNOWN) {
+            
+            namespaceId = NAMESPACE_IDS.size();
+            NAMESPACE_IDS.put(namespace, namespaceId);
+        }
+        
+        return namespaceId;
+    }
+}
\ No newline at end of file
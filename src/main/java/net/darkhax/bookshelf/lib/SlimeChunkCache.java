@@ -0,0 +1,168 @@
+/**
+ * This class was created by <Darkhax>. It is distributed as part of Bookshelf. You can find
+ * the original source here: https://github.com/Darkhax-Minecraft/Bookshelf
+ * 
+ * Bookshelf is Open Source and distributed under the GNU Lesser General Public License version
+ * 2.1.
+ */
+package net.darkhax.bookshelf.lib;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.util.SharedSeedRandom;
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * A cache of slime chunk data for a single world seed. Chunks are grouped into square regions
+ * of {@link #REGION_SIZE} chunks per side, and each region is stored as a bitset which is
+ * calculated the first time any chunk within the region is requested. Regions are evicted in
+ * least recently used order once {@link #maxRegions} is exceeded.
+ */
+public class SlimeChunkCache {
+    
+    /**
+     * The amount of chunks along each side of a region.
+     */
+    public static final int REGION_SIZE = 32;
+    
+    /**
+     * The amount of bits needed to shift a chunk coordinate into a region coordinate.
+     */
+    private static final int REGION_SHIFT = 5;
+    
+    /**
+     * The mask used to get the chunk coordinate relative to the region.
+     */
+    private static final int REGION_MASK = REGION_SIZE - 1;
+    
+    /**
+     * The amount of longs needed to hold one bit for every chunk in a region.
+     */
+    private static final int REGION_WORDS = REGION_SIZE * REGION_SIZE / Long.SIZE;
+    
+    /**
+     * The salt used by vanilla when seeding the random for slime chunks.
+     */
+    private static final long SLIME_SALT = 987234911L;
+    
+    /**
+     * The world seed that slime chunks are calculated for.
+     */
+    private final long seed;
+    
+    /**
+     * The maximum amount of regions to keep in the cache.
+     */
+    private final int maxRegions;
+    
+    /**
+     * The calculated regions, keyed by the packed region position. Access order is maintained
+     * by moving regions to the end of the map when they are used.
+     */
+    private final Long2ObjectLinkedOpenHashMap<long[]> regions = new Long2ObjectLinkedOpenHashMap<>();
+    
+    public SlimeChunkCache(long seed, int maxRegions) {
+        
+        this.seed = seed;
+        this.maxRegions = maxRegions;
+    }
+    
+    /**
+     * Gets the seed this cache was created for.
+     * 
+     * @return The seed of the cache.
+     */
+    public long getSeed () {
+        
+        return this.seed;
+    }
+    
+    /**
+     * Checks if a chunk is a slime chunk.
+     * 
+     * @param chunkX The x position of the chunk.
+     * @param chunkZ The z position of the chunk.
+     * @return Whether or not the chunk is a slime chunk.
+     */
+    public boolean isSlimeChunk (int chunkX, int chunkZ) {
+        
+        final long[] region = this.getRegion(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT);
+        final int index = (chunkZ & REGION_MASK) << REGION_SHIFT | chunkX & REGION_MASK;
+        return (region[index >> 6] & 1L << (index & 63)) != 0;
+    }
+    
+    /**
+     * Removes all calculated regions from the cache.
+     */
+    public synchronized void clear () {
+        
+        this.regions.clear();
+    }
+    
+    /**
+     * Gets the bitset for a region, calculating it if it is not already cached.
+     * 
+     * @param regionX The x position of the region.
+     * @param regionZ The z position of the region.
+     * @return The bitset for the region.
+     */
+    private synchronized long[] getRegion (int regionX, int regionZ) {
+        
+        final long key = ChunkPos.asLong(regionX, regionZ);
+        long[] region = this.regions.getAndMoveToLast(key);
+        
+        if (region == null) {
+            
+            region = this.calculateRegion(regionX, regionZ);
+            this.regions.putAndMoveToLast(key, region);
+            
+            while (this.regions.size() > this.maxRegions) {
+                
+                this.regions.removeFirst();
+            }
+        }
+        
+        return region;
+    }
+    
+    /**
+     * Calculates the slime chunk bitset for a region.
+     * 
+     * @param regionX The x position of the region.
+     * @param regionZ The z position of the region.
+     * @return The bitset for the region.
+     */
+    private long[] calculateRegion (int regionX, int regionZ) {
+        
+        final long[] region = new long[REGION_WORDS];
+        final int startX = regionX << REGION_SHIFT;
+        final int startZ = regionZ << REGION_SHIFT;
+        
+        for (int z = 0; z < REGION_SIZE; z++) {
+            
+            for (int x = 0; x < REGION_SIZE; x++) {
+                
+                if (calculateSlimeChunk(this.seed, startX + x, startZ + z)) {
+                    
+                    final int index = z << REGION_SHIFT | x;
+                    region[index >> 6] |= 1L << (index & 63);
+                }
+            }
+        }
+        
+        return region;
+    }
+    
+    /**
+     * Calculates if a chunk is a slime chunk without using any cache. This matches the vanilla
+     * slime chunk logic.
+     * 
+     * @param seed The world seed.
+     * @param chunkX The x position of the chunk.
+     * @param chunkZ The z position of the chunk.
+     * @return Whether or not the chunk is a slime chunk.
+     */
+    public static boolean calculateSlimeChunk (long seed, int chunkX, int chunkZ) {
+        
+        return SharedSeedRandom.seedSlimeChunk(chunkX, chunkZ, seed, SLIME_SALT).nextInt(10) == 0;
+    }
+}
\ No newline at end of file
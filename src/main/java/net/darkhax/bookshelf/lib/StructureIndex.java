@@ -0,0 +1,266 @@
+/**
+ * This class was created by <Darkhax>. It is distributed as part of Bookshelf. You can find
+ * the original source here: https://github.com/Darkhax-Minecraft/Bookshelf
+ * 
+ * Bookshelf is Open Source and distributed under the GNU Lesser General Public License version
+ * 2.1.
+ */
+package net.darkhax.bookshelf.lib;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MutableBoundingBox;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.IChunk;
+import net.minecraft.world.gen.feature.structure.Structure;
+import net.minecraft.world.gen.feature.structure.StructurePiece;
+import net.minecraft.world.gen.feature.structure.StructureStart;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+/**
+ * An index of the structures that are present in each chunk of a world. The structure starts
+ * referenced by a chunk are resolved the first time the chunk is checked for a structure, and
+ * their bounding boxes are kept until the chunk is unloaded. This allows repeated checks to be
+ * answered with a map lookup and a few bounding box tests. Chunks which have not finished
+ * generating are resolved on each check and are not kept in the index.
+ */
+public class StructureIndex {
+    
+    /**
+     * The structure index for each world. Worlds are weakly referenced so unloaded worlds will
+     * have their index released.
+     */
+    private static final Map<IWorld, StructureIndex> INDEXES = new WeakHashMap<>();
+    
+    /**
+     * The world this index belongs to.
+     */
+    private final IWorld world;
+    
+    /**
+     * The structure bounds for each indexed chunk, keyed by the packed chunk position. The
+     * inner map is keyed by the name of the structure.
+     */
+    private final Long2ObjectMap<Map<String, StructureBounds[]>> chunks = new Long2ObjectOpenHashMap<>();
+    
+    private StructureIndex(IWorld world) {
+        
+        this.world = world;
+    }
+    
+    /**
+     * Checks if a position is inside of a structure. This is equivalent to
+     * {@link Structure#isPositionInsideStructure(IWorld, BlockPos)}.
+     * 
+     * @param structure The structure to look for.
+     * @param pos The position to check.
+     * @return Whether or not the position is inside the structure.
+     */
+    public boolean isInsideStructure (Structure<?> structure, BlockPos pos) {
+        
+        for (final StructureBounds bounds : this.getBounds(structure, pos.getX() >> 4, pos.getZ() >> 4)) {
+            
+            if (bounds.isInside(pos)) {
+                
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Removes a chunk from the index.
+     * 
+     * @param chunkPos The position of the chunk to remove.
+     */
+    public synchronized void invalidate (ChunkPos chunkPos) {
+        
+        this.chunks.remove(chunkPos.asLong());
+    }
+    
+    /**
+     * Gets the bounds of all starts for a given structure which are referenced by a chunk.
+     * Chunks are loaded outside of the index lock, as loading a chunk may block on the server
+     * thread which could be waiting on the same lock. Only chunks which have finished
+     * generating are indexed, as chunks that are only loaded to an earlier status do not fire
+     * an unload event and would never be removed.
+     * 
+     * @param structure The structure to look for.
+     * @param chunkX The x position of the chunk.
+     * @param chunkZ The z position of the chunk.
+     * @return The bounds of the structure starts referenced by the chunk.
+     */
+    private StructureBounds[] getBounds (Structure<?> structure, int chunkX, int chunkZ) {
+        
+        final long chunkKey = ChunkPos.asLong(chunkX, chunkZ);
+        final String structureName = structure.getStructureName();
+        
+        synchronized (this) {
+            
+            final Map<String, StructureBounds[]> chunkStructures = this.chunks.get(chunkKey);
+            
+            if (chunkStructures != null) {
+                
+                final StructureBounds[] bounds = chunkStructures.get(structureName);
+                
+                if (bounds != null) {
+                    
+                    return bounds;
+                }
+            }
+        }
+        
+        final IChunk chunk = this.world.getChunk(chunkX, chunkZ, ChunkStatus.STRUCTURE_REFERENCES);
+        final StructureBounds[] bounds = this.resolveBounds(chunk, structureName);
+        
+        if (chunk.getStatus().isAtLeast(ChunkStatus.FULL)) {
+            
+            synchronized (this) {
+                
+                Map<String, StructureBounds[]> chunkStructures = this.chunks.get(chunkKey);
+                
+                if (chunkStructures == null) {
+                    
+                    chunkStructures = new HashMap<>();
+                    this.chunks.put(chunkKey, chunkStructures);
+                }
+                
+                chunkStructures.putIfAbsent(structureName, bounds);
+            }
+        }
+        
+        return bounds;
+    }
+    
+    /**
+     * Resolves the bounds of all structure starts referenced by a chunk. This follows the same
+     * lookup that vanilla uses when checking if a position is inside a structure.
+     * 
+     * @param chunk The chunk to resolve the references of.
+     * @param structureName The name of the structure.
+     * @return The bounds of the structure starts referenced by the chunk.
+     */
+    private StructureBounds[] resolveBounds (IChunk chunk, String structureName) {
+        
+        final List<StructureBounds> bounds = new ArrayList<>();
+        final LongIterator references = chunk.getStructureReferences(structureName).iterator();
+        
+        while (references.hasNext()) {
+            
+            final long reference = references.nextLong();
+            final IChunk startChunk = this.world.getChunk(ChunkPos.getX(reference), ChunkPos.getZ(reference), ChunkStatus.STRUCTURE_STARTS);
+            final StructureStart start = startChunk.getStructureStart(structureName);
+            
+            if (start != null && start.isValid()) {
+                
+                bounds.add(new StructureBounds(start));
+            }
+        }
+        
+        return bounds.toArray(new StructureBounds[0]);
+    }
+    
+    /**
+     * Gets the structure index for a world. If one does not exist it will be created.
+     * 
+     * @param world The world to get the index for.
+     * @return The structure index for the world.
+     */
+    public static StructureIndex get (IWorld world) {
+        
+        synchronized (INDEXES) {
+            
+            return INDEXES.computeIfAbsent(world, StructureIndex::new);
+        }
+    }
+    
+    /**
+     * Removes unloaded chunks from the index of their world.
+     * 
+     * @param event The chunk unload event.
+     */
+    public static void onChunkUnload (ChunkEvent.Unload event) {
+        
+        final StructureIndex index;
+        
+        synchronized (INDEXES) {
+            
+            index = INDEXES.get(event.getWorld());
+        }
+        
+        if (index != null) {
+            
+            index.invalidate(event.getChunk().getPos());
+        }
+    }
+    
+    /**
+     * Removes the index of a world when it is unloaded.
+     * 
+     * @param event The world unload event.
+     */
+    public static void onWorldUnload (WorldEvent.Unload event) {
+        
+        synchronized (INDEXES) {
+            
+            INDEXES.remove(event.getWorld());
+        }
+    }
+    
+    /**
+     * The bounding boxes of a single structure start and its pieces.
+     */
+    private static class StructureBounds {
+        
+        /**
+         * The bounding box that contains the entire structure.
+         */
+        private final MutableBoundingBox bounds;
+        
+        /**
+         * The bounding boxes of the individual structure pieces.
+         */
+        private final MutableBoundingBox[] pieces;
+        
+        private StructureBounds(StructureStart start) {
+            
+            this.bounds = start.getBoundingBox();
+            
+            final List<StructurePiece> components = start.getComponents();
+            this.pieces = new MutableBoundingBox[components.size()];
+            
+            for (int i = 0; i < this.pieces.length; i++) {
+                
+                this.pieces[i] = components.get(i).getBoundingBox();
+            }
+        }
+        
+        private boolean isInside (BlockPos pos) {
+            
+            if (this.bounds.isVecInside(pos)) {
+                
+                for (final MutableBoundingBox piece : this.pieces) {
+                    
+                    if (piece.isVecInside(pos)) {
+                        
+                        return true;
+                    }
+                }
+            }
+            
+            return false;
+        }
+    }
+}
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonSerializationContext;
 
 import net.darkhax.bookshelf.Bookshelf;
+import net.darkhax.bookshelf.util.BiomeUtils;
 import net.minecraft.util.JSONUtils;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
@@ -12,7 +13,6 @@ import net.minecraft.world.biome.Biome;
 import net.minecraft.world.storage.loot.LootContext;
 import net.minecraft.world.storage.loot.LootParameters;
 import net.minecraft.world.storage.loot.conditions.ILootCondition;
-import net.minecraftforge.common.BiomeDictionary;
 import net.minecraftforge.common.BiomeDictionary.Type;
 
 /**
@@ -46,7 +46,7 @@ public class CheckBiomeTag implements ILootCondition {
             
             if (biome != null) {
                 
-                return BiomeDictionary.hasType(biome, this.biomeType);
+                return BiomeUtils.hasType(biome, this.biomeType);
             }
         }
         
@@ -1,5 +1,7 @@
 package net.darkhax.bookshelf.loot.condition;
 
+import javax.annotation.Nullable;
+
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSerializationContext;
@@ -25,9 +27,18 @@ public class CheckDimensionId implements ILootCondition {
     
     private final ResourceLocation dimensionId;
     
+    /**
+     * The dimension type for {@link #dimensionId}. This is resolved when the condition is
+     * created so the test only needs to compare the types. If the dimension type was not
+     * registered at that time this will be null and the ids will be compared instead.
+     */
+    @Nullable
+    private final DimensionType dimensionType;
+    
     public CheckDimensionId(ResourceLocation dimensionId) {
         
         this.dimensionId = dimensionId;
+        this.dimensionType = dimensionId != null ? DimensionType.byName(dimensionId) : null;
     }
     
     @Override
@@ -42,7 +53,7 @@ public class CheckDimensionId implements ILootCondition {
             
             if (type != null) {
                 
-                return type.getRegistryName().equals(this.dimensionId);
+                return this.dimensionType != null ? type == this.dimensionType : type.getRegistryName().equals(this.dimensionId);
             }
         }
         
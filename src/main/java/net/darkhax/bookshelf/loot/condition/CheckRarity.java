@@ -1,5 +1,9 @@
 package net.darkhax.bookshelf.loot.condition;
 
+import java.util.Locale;
+
+import javax.annotation.Nullable;
+
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSerializationContext;
@@ -23,10 +27,27 @@ public class CheckRarity implements ILootCondition {
      */
     public static final Serializer SERIALIZER = new Serializer();
     
-    private final String rarity;
+    /**
+     * The name of the rarity, as it was defined in the loot table.
+     */
+    private final String rarityName;
+    
+    /**
+     * The rarity to check for. This is resolved from {@link #rarityName} when the condition is
+     * created. If no rarity exists with that name this will be null and the test will fail.
+     */
+    @Nullable
+    private final Rarity rarity;
     
     public CheckRarity(String rarity) {
         
+        this.rarityName = rarity;
+        this.rarity = resolveRarity(rarity);
+    }
+    
+    public CheckRarity(Rarity rarity) {
+        
+        this.rarityName = rarity.name().toLowerCase(Locale.ROOT);
         this.rarity = rarity;
     }
     
@@ -37,13 +58,27 @@ public class CheckRarity implements ILootCondition {
         
         if (stack != null) {
             
-            final Rarity stackRarity = stack.getRarity();
-            return stackRarity != null && stackRarity.name().equalsIgnoreCase(this.rarity);
+            return this.rarity != null && stack.getRarity() == this.rarity;
         }
         
         return false;
     }
     
+    @Nullable
+    private static Rarity resolveRarity (String name) {
+        
+        for (final Rarity rarity : Rarity.values()) {
+            
+            if (rarity.name().equalsIgnoreCase(name)) {
+                
+                return rarity;
+            }
+        }
+        
+        Bookshelf.LOG.error("Loot table condition is looking for rarity {} which doesn't exist.", name);
+        return null;
+    }
+    
     static class Serializer extends ILootCondition.AbstractSerializer<CheckRarity> {
         
         Serializer() {
@@ -54,7 +89,7 @@ public class CheckRarity implements ILootCondition {
         @Override
         public void serialize (JsonObject json, CheckRarity value, JsonSerializationContext context) {
             
-            json.addProperty("rarity", value.rarity);
+            json.addProperty("rarity", value.rarityName);
         }
         
         @Override
@@ -1,10 +1,13 @@
 package net.darkhax.bookshelf.loot.condition;
 
+import javax.annotation.Nullable;
+
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSerializationContext;
 
 import net.darkhax.bookshelf.Bookshelf;
+import net.darkhax.bookshelf.lib.StructureIndex;
 import net.minecraft.util.JSONUtils;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
@@ -30,13 +33,22 @@ public class CheckStructure implements ILootCondition {
     private final String structureName;
     
     /**
-     * The structure being checked for. This is lazy loaded by {@link #loadStructure()}.
+     * The structure being checked for. This is resolved from {@link #structureName} when the
+     * condition is created. If no structure exists with that name this will be null and the
+     * test will fail.
      */
-    private Structure<?> structure;
+    @Nullable
+    private final Structure<?> structure;
     
     public CheckStructure(String structureName) {
         
         this.structureName = structureName;
+        this.structure = Feature.STRUCTURES.get(structureName);
+        
+        if (this.structure == null) {
+            
+            Bookshelf.LOG.error("Loot table condition is looking for structure {} which doesn't exist.", structureName);
+        }
     }
     
     @Override
@@ -44,30 +56,14 @@ public class CheckStructure implements ILootCondition {
         
         final BlockPos pos = ctx.get(LootParameters.POSITION);
         
-        if (pos != null && this.loadStructure()) {
+        if (pos != null && this.structure != null) {
             
-            return this.structure.isPositionInsideStructure(ctx.getWorld(), pos);
+            return StructureIndex.get(ctx.getWorld()).isInsideStructure(this.structure, pos);
         }
         
         return false;
     }
     
-    private boolean loadStructure () {
-        
-        if (this.structure == null) {
-            
-            this.structure = Feature.STRUCTURES.get(this.structureName);
-            
-            if (this.structure == null) {
-                
-                Bookshelf.LOG.error("Loot table condition is looking for structure {} which doesn't exist.", this.structureName);
-                return false;
-            }
-        }
-        
-        return true;
-    }
-    
     static class Serializer extends ILootCondition.AbstractSerializer<CheckStructure> {
         
         Serializer() {
@@ -0,0 +1,174 @@
+package net.darkhax.bookshelf.loot.condition;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import net.minecraft.world.storage.loot.LootContext;
+import net.minecraft.world.storage.loot.conditions.ILootCondition;
+
+/**
+ * A loot condition which requires all of its child conditions to pass. The cost and rejection
+ * rate of each child is recorded as it is tested, and the children are periodically reordered
+ * so that cheap conditions which fail often are tested first. Because the children are combined
+ * with a logical and, the order only changes how quickly a result is found. Child conditions
+ * must be free of side effects for this to hold.
+ */
+public class LootConditionAdaptive implements ILootCondition {
+    
+    /**
+     * The amount of tests between each reordering of the conditions.
+     */
+    private static final int REORDER_INTERVAL = 1024;
+    
+    /**
+     * Only one in every this many tests is timed, to keep the cost of timing low.
+     */
+    private static final int TIMING_INTERVAL = 16;
+    
+    /**
+     * The amount of timed tests a condition needs before its score is updated.
+     */
+    private static final int MIN_SAMPLES = 8;
+    
+    /**
+     * The child conditions, in their original order. Statistics are indexed using this order.
+     */
+    private final ILootCondition[] conditions;
+    
+    /**
+     * The total time in nanoseconds spent in each condition during timed tests.
+     */
+    private final long[] timeSpent;
+    
+    /**
+     * The amount of timed tests that reached each condition.
+     */
+    private final long[] timesTimed;
+    
+    /**
+     * The amount of tests that reached each condition.
+     */
+    private final long[] timesTested;
+    
+    /**
+     * The amount of tests where each condition failed.
+     */
+    private final long[] timesRejected;
+    
+    /**
+     * The last known score of each condition. This is negative infinity until the condition
+     * has been measured, so unmeasured conditions are tested first.
+     */
+    private final double[] scores;
+    
+    /**
+     * The order to test the conditions in. This is replaced rather than modified when the
+     * conditions are reordered.
+     */
+    private volatile int[] order;
+    
+    /**
+     * The amount of times this condition has been tested. This and the other statistics are
+     * not synchronized, as they only need to be approximate.
+     */
+    private int tests;
+    
+    public LootConditionAdaptive(ILootCondition... conditions) {
+        
+        this.conditions = conditions;
+        this.timeSpent = new long[conditions.length];
+        this.timesTimed = new long[conditions.length];
+        this.timesTested = new long[conditions.length];
+        this.timesRejected = new long[conditions.length];
+        this.scores = new double[conditions.length];
+        this.order = new int[conditions.length];
+        
+        for (int i = 0; i < conditions.length; i++) {
+            
+            this.order[i] = i;
+            this.scores[i] = Double.NEGATIVE_INFINITY;
+        }
+    }
+    
+    @Override
+    public boolean test (LootContext ctx) {
+        
+        final int testCount = ++this.tests;
+        final boolean timed = testCount % TIMING_INTERVAL == 0;
+        
+        if (testCount % REORDER_INTERVAL == 0) {
+            
+            this.reorder();
+        }
+        
+        for (final int index : this.order) {
+            
+            this.timesTested[index]++;
+            
+            final boolean passed;
+            
+            if (timed) {
+                
+                final long startTime = System.nanoTime();
+                passed = this.conditions[index].test(ctx);
+                this.timeSpent[index] += System.nanoTime() - startTime;
+                this.timesTimed[index]++;
+            }
+            
+            else {
+                
+                passed = this.conditions[index].test(ctx);
+            }
+            
+            if (!passed) {
+                
+                this.timesRejected[index]++;
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Sorts the conditions by their expected cost per rejection. Conditions which have not
+     * been measured yet are kept in front so they can be measured. A condition's score is only
+     * updated once it has enough timed tests, and its statistics are then halved, so older
+     * tests count for less and the order can adapt when the conditions start behaving
+     * differently. Conditions which are rarely reached keep their last score until they have
+     * enough new tests.
+     */
+    private void reorder () {
+        
+        final double[] currentScores = this.scores;
+        
+        for (int i = 0; i < currentScores.length; i++) {
+            
+            if (this.timesTimed[i] >= MIN_SAMPLES) {
+                
+                final double averageCost = (double) this.timeSpent[i] / this.timesTimed[i];
+                final double rejectionRate = (double) this.timesRejected[i] / this.timesTested[i];
+                currentScores[i] = averageCost / Math.max(rejectionRate, 0.001d);
+                
+                this.timeSpent[i] >>= 1;
+                this.timesTimed[i] >>= 1;
+                this.timesTested[i] >>= 1;
+                this.timesRejected[i] >>= 1;
+            }
+        }
+        
+        this.order = Arrays.stream(this.order).boxed().sorted(Comparator.comparingDouble(index -> currentScores[index])).mapToInt(Integer::intValue).toArray();
+    }
+    
+    /**
+     * Combines an array of loot conditions into a single adaptive condition. Arrays with less
+     * than two conditions have nothing to reorder and are returned unchanged.
+     * 
+     * @param conditions The conditions to combine.
+     * @return An array containing the combined condition.
+     */
+    public static ILootCondition[] combine (ILootCondition[] conditions) {
+        
+        return conditions.length < 2 ? conditions : new ILootCondition[] { new LootConditionAdaptive(conditions) };
+    }
+}
\ No newline at end of file
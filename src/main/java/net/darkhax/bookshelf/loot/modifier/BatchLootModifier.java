@@ -0,0 +1,68 @@
+package net.darkhax.bookshelf.loot.modifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import net.minecraft.world.storage.loot.LootContext;
+import net.minecraft.world.storage.loot.conditions.ILootCondition;
+import net.minecraft.world.storage.loot.conditions.LootConditionManager;
+import net.minecraftforge.common.loot.LootModifier;
+
+/**
+ * A loot modifier which can process a {@link LootBatch} in one pass. The conditions of the
+ * modifier are tested for every entry, and the entries which pass are given to
+ * {@link #doApplyBatch(List)} together. By default each entry is passed to
+ * {@link #doApply(List, LootContext)}, but modifiers can override this to share state which
+ * would otherwise be resolved once per entry.
+ */
+public abstract class BatchLootModifier extends LootModifier {
+    
+    /**
+     * The conditions of the modifier combined into one predicate.
+     */
+    private final Predicate<LootContext> batchConditions;
+    
+    protected BatchLootModifier(ILootCondition[] conditions) {
+        
+        super(conditions);
+        this.batchConditions = LootConditionManager.and(conditions);
+    }
+    
+    /**
+     * Applies the modifier to every entry of a batch that passes the conditions of the
+     * modifier.
+     * 
+     * @param entries The entries of the batch.
+     */
+    public void applyBatch (List<LootBatch.Entry> entries) {
+        
+        final List<LootBatch.Entry> matched = new ArrayList<>(entries.size());
+        
+        for (final LootBatch.Entry entry : entries) {
+            
+            if (this.batchConditions.test(entry.getContext())) {
+                
+                matched.add(entry);
+            }
+        }
+        
+        if (!matched.isEmpty()) {
+            
+            this.doApplyBatch(matched);
+        }
+    }
+    
+    /**
+     * Applies the modifier to entries which have passed the conditions of the modifier.
+     * 
+     * @param entries The entries to modify.
+     */
+    protected void doApplyBatch (List<LootBatch.Entry> entries) {
+        
+        for (final LootBatch.Entry entry : entries) {
+            
+            entry.setLoot(this.doApply(entry.getLoot(), entry.getContext()));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package net.darkhax.bookshelf.loot.modifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.world.storage.loot.LootContext;
+import net.minecraftforge.common.ForgeInternalHandler;
+import net.minecraftforge.common.loot.IGlobalLootModifier;
+import net.minecraftforge.items.ItemHandlerHelper;
+
+/**
+ * A batch of generated loot which global loot modifiers are applied to at the same time. This
+ * is intended for things which break many blocks at once, such as explosions or quarries.
+ * Modifiers are applied in the same order as {@link net.minecraftforge.common.ForgeHooks}
+ * would apply them, but every entry in the batch is passed through a modifier before moving
+ * on to the next one. Modifiers from Bookshelf process the whole batch together and share
+ * things like resolved loot tables and recipe caches between entries.
+ */
+public class LootBatch {
+    
+    /**
+     * The entries in the batch.
+     */
+    private final List<Entry> entries = new ArrayList<>();
+    
+    /**
+     * Adds generated loot to the batch. The loot should not have had global loot modifiers
+     * applied to it yet.
+     * 
+     * @param context The context the loot was generated with.
+     * @param loot The generated loot.
+     * @return The same batch, for chaining.
+     */
+    public LootBatch add (LootContext context, List<ItemStack> loot) {
+        
+        this.entries.add(new Entry(context, loot));
+        return this;
+    }
+    
+    /**
+     * Gets the entries in the batch. After {@link #apply()} has been called, the loot of each
+     * entry will have had all global loot modifiers applied.
+     * 
+     * @return An unmodifiable list of the entries in the batch.
+     */
+    public List<Entry> getEntries () {
+        
+        return Collections.unmodifiableList(this.entries);
+    }
+    
+    /**
+     * Applies every global loot modifier to the loot in the batch.
+     * 
+     * @return The loot of every entry in the batch, with stacks of the same item merged.
+     */
+    public List<ItemStack> apply () {
+        
+        if (!this.entries.isEmpty()) {
+            
+            for (final IGlobalLootModifier modifier : ForgeInternalHandler.getLootModifierManager().getAllLootMods()) {
+                
+                if (modifier instanceof BatchLootModifier) {
+                    
+                    ((BatchLootModifier) modifier).applyBatch(this.entries);
+                }
+                
+                else {
+                    
+                    for (final Entry entry : this.entries) {
+                        
+                        entry.setLoot(modifier.apply(entry.getLoot(), entry.getContext()));
+                    }
+                }
+            }
+        }
+        
+        final List<ItemStack> merged = new ArrayList<>();
+        
+        for (final Entry entry : this.entries) {
+            
+            mergeStacks(merged, entry.getLoot());
+        }
+        
+        return merged;
+    }
+    
+    /**
+     * Merges stacks into a list of stacks. Stacks which can stack with an existing stack are
+     * added to it up to the max stack size, and any remainder is added to the end of the list.
+     * 
+     * @param merged The list to merge stacks into.
+     * @param stacks The stacks to merge.
+     */
+    public static void mergeStacks (List<ItemStack> merged, List<ItemStack> stacks) {
+        
+        for (final ItemStack stack : stacks) {
+            
+            if (stack.isEmpty()) {
+                
+                continue;
+            }
+            
+            final ItemStack remaining = stack.copy();
+            
+            for (final ItemStack existing : merged) {
+                
+                if (existing.getCount() < existing.getMaxStackSize() && ItemHandlerHelper.canItemStacksStack(existing, remaining)) {
+                    
+                    final int moved = Math.min(remaining.getCount(), existing.getMaxStackSize() - existing.getCount());
+                    existing.grow(moved);
+                    remaining.shrink(moved);
+                    
+                    if (remaining.isEmpty()) {
+                        
+                        break;
+                    }
+                }
+            }
+            
+            if (!remaining.isEmpty()) {
+                
+                merged.add(remaining);
+            }
+        }
+    }
+    
+    /**
+     * The generated loot of a single loot context within a batch.
+     */
+    public static class Entry {
+        
+        private final LootContext context;
+        
+        private List<ItemStack> loot;
+        
+        private Entry(LootContext context, List<ItemStack> loot) {
+            
+            this.context = context;
+            this.loot = loot;
+        }
+        
+        public LootContext getContext () {
+            
+            return this.context;
+        }
+        
+        public List<ItemStack> getLoot () {
+            
+            return this.loot;
+        }
+        
+        public void setLoot (List<ItemStack> loot) {
+            
+            this.loot = loot;
+        }
+    }
+}
\ No newline at end of file
@@ -4,15 +4,15 @@ import java.util.List;
 
 import com.google.gson.JsonObject;
 
+import net.darkhax.bookshelf.loot.condition.LootConditionAdaptive;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.ShapedRecipe;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.world.storage.loot.LootContext;
 import net.minecraft.world.storage.loot.conditions.ILootCondition;
 import net.minecraftforge.common.loot.GlobalLootModifierSerializer;
-import net.minecraftforge.common.loot.LootModifier;
 
-public class ModifierAddItem extends LootModifier {
+public class ModifierAddItem extends BatchLootModifier {
     
     public static final Serializer SERIALIZER = new Serializer();
     
@@ -20,7 +20,7 @@ public class ModifierAddItem extends LootModifier {
     
     public ModifierAddItem(ILootCondition[] conditions, ItemStack toAdd) {
         
-        super(conditions);
+        super(LootConditionAdaptive.combine(conditions));
         this.toAdd = toAdd;
     }
     
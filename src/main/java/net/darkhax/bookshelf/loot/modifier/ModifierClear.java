@@ -3,19 +3,19 @@ package net.darkhax.bookshelf.loot.modifier;
 import java.util.ArrayList;
 import java.util.List;
 
+import net.darkhax.bookshelf.loot.condition.LootConditionAdaptive;
 import net.minecraft.item.ItemStack;
 import net.minecraft.world.storage.loot.LootContext;
 import net.minecraft.world.storage.loot.conditions.ILootCondition;
-import net.minecraftforge.common.loot.LootModifier;
 
 /**
  * This loot modifier will clear all the generated loot.
  */
-public class ModifierClear extends LootModifier {
+public class ModifierClear extends BatchLootModifier {
     
     public ModifierClear(ILootCondition[] conditionsIn) {
         
-        super(conditionsIn);
+        super(LootConditionAdaptive.combine(conditionsIn));
     }
     
     @Override
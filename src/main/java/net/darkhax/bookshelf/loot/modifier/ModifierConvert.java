@@ -1,21 +1,26 @@
 package net.darkhax.bookshelf.loot.modifier;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import com.google.gson.JsonObject;
 
-import net.darkhax.bookshelf.util.MathsUtils;
+import net.darkhax.bookshelf.loot.condition.LootConditionAdaptive;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.JSONUtils;
 import net.minecraft.util.NonNullList;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.world.storage.loot.LootContext;
 import net.minecraft.world.storage.loot.LootTable;
+import net.minecraft.world.storage.loot.LootTableManager;
 import net.minecraft.world.storage.loot.conditions.ILootCondition;
+import net.minecraftforge.common.ForgeHooks;
 import net.minecraftforge.common.loot.GlobalLootModifierSerializer;
-import net.minecraftforge.common.loot.LootModifier;
 
-public class ModifierConvert extends LootModifier {
+public class ModifierConvert extends BatchLootModifier {
     
     public static final Serializer SERIALIZER = new Serializer();
     
@@ -23,37 +28,166 @@ public class ModifierConvert extends LootModifier {
     
     private final float chance;
     
+    /**
+     * Whether or not converted items should be generated as a batch. When enabled the table
+     * is rolled for every converted item into a single list, and global loot modifiers are
+     * applied to that list once instead of once per roll.
+     */
+    private final boolean batch;
+    
+    /**
+     * The resolved table, and the table map it was resolved from. This is used to avoid
+     * looking the table up every time the modifier is applied.
+     */
+    private volatile TableHandle tableHandle;
+    
     public ModifierConvert(ILootCondition[] conditions, ResourceLocation table, float chance) {
         
-        super(conditions);
+        this(conditions, table, chance, false);
+    }
+    
+    public ModifierConvert(ILootCondition[] conditions, ResourceLocation table, float chance, boolean batch) {
+        
+        super(LootConditionAdaptive.combine(conditions));
         
         this.tableName = table;
         this.chance = chance;
+        this.batch = batch;
     }
     
     @Override
     protected List<ItemStack> doApply (List<ItemStack> loot, LootContext ctx) {
         
-        final List<ItemStack> outputs = NonNullList.create();
+        return this.convert(loot, ctx, this.getTable(ctx));
+    }
+    
+    @Override
+    protected void doApplyBatch (List<LootBatch.Entry> entries) {
         
-        final LootTable table = ctx.getWorld().getServer().getLootTableManager().getLootTableFromLocation(this.tableName);
+        // All entries share a server, so the table only needs to be resolved once.
+        final LootTable table = this.getTable(entries.get(0).getContext());
         
-        for (final ItemStack item : loot) {
+        for (final LootBatch.Entry entry : entries) {
             
-            if (MathsUtils.tryPercentage(this.chance)) {
+            entry.setLoot(this.convert(entry.getLoot(), entry.getContext(), table));
+        }
+    }
+    
+    /**
+     * Converts generated loot into the output of the conversion table.
+     * 
+     * @param loot The loot to convert.
+     * @param ctx The current loot context.
+     * @param table The table to convert items with.
+     * @return The converted loot.
+     */
+    private List<ItemStack> convert (List<ItemStack> loot, LootContext ctx, LootTable table) {
+        
+        final List<ItemStack> outputs = NonNullList.create();
+        final Random random = ctx.getRandom();
+        
+        if (this.batch) {
+            
+            int converted = 0;
+            
+            for (final ItemStack item : loot) {
+                
+                if (random.nextFloat() < this.chance) {
+                    
+                    converted++;
+                }
                 
-                outputs.addAll(table.generate(ctx));
+                else {
+                    
+                    outputs.add(item);
+                }
             }
             
-            else {
+            outputs.addAll(generateBatch(table, ctx, converted));
+        }
+        
+        else {
+            
+            for (final ItemStack item : loot) {
                 
-                outputs.add(item);
+                if (random.nextFloat() < this.chance) {
+                    
+                    outputs.addAll(table.generate(ctx));
+                }
+                
+                else {
+                    
+                    outputs.add(item);
+                }
             }
         }
         
         return outputs;
     }
     
+    /**
+     * Gets the table to convert items with. The table is resolved once and reused until the
+     * loot tables are reloaded.
+     * 
+     * @param ctx The current loot context.
+     * @return The table to convert items with.
+     */
+    private LootTable getTable (LootContext ctx) {
+        
+        final LootTableManager manager = ctx.getWorld().getServer().getLootTableManager();
+        final Map<ResourceLocation, LootTable> tables = manager.registeredLootTables;
+        TableHandle handle = this.tableHandle;
+        
+        if (handle == null || handle.source != tables) {
+            
+            handle = new TableHandle(tables, manager.getLootTableFromLocation(this.tableName));
+            this.tableHandle = handle;
+        }
+        
+        return handle.table;
+    }
+    
+    /**
+     * Rolls a loot table multiple times into a single list. Global loot modifiers are applied
+     * to the combined list once, rather than to the result of every roll.
+     * 
+     * @param table The table to roll.
+     * @param ctx The loot context to roll with.
+     * @param rolls The amount of times to roll the table.
+     * @return The combined results of every roll.
+     */
+    public static List<ItemStack> generateBatch (LootTable table, LootContext ctx, int rolls) {
+        
+        if (rolls <= 0) {
+            
+            return Collections.emptyList();
+        }
+        
+        final List<ItemStack> generated = new ArrayList<>();
+        
+        for (int i = 0; i < rolls; i++) {
+            
+            table.generate(ctx, generated::add);
+        }
+        
+        return ForgeHooks.modifyLoot(generated, ctx);
+    }
+    
+    /**
+     * A resolved loot table and the map of tables it was resolved from.
+     */
+    private static class TableHandle {
+        
+        private final Map<ResourceLocation, LootTable> source;
+        private final LootTable table;
+        
+        private TableHandle(Map<ResourceLocation, LootTable> source, LootTable table) {
+            
+            this.source = source;
+            this.table = table;
+        }
+    }
+    
     static class Serializer extends GlobalLootModifierSerializer<ModifierConvert> {
         
         @Override
@@ -61,7 +195,8 @@ public class ModifierConvert extends LootModifier {
             
             final ResourceLocation tableName = ResourceLocation.tryCreate(JSONUtils.getString(data, "table"));
             final float chance = JSONUtils.getFloat(data, "chance", 1f);
-            return new ModifierConvert(conditions, tableName, chance);
+            final boolean batch = JSONUtils.getBoolean(data, "batch", false);
+            return new ModifierConvert(conditions, tableName, chance, batch);
         }
     }
 }
\ No newline at end of file
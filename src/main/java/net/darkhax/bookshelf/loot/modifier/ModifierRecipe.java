@@ -7,20 +7,19 @@ import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 
 import net.darkhax.bookshelf.Bookshelf;
-import net.minecraft.inventory.Inventory;
+import net.darkhax.bookshelf.item.crafting.RecipeOutputCache;
+import net.darkhax.bookshelf.loot.condition.LootConditionAdaptive;
 import net.minecraft.item.ItemStack;
-import net.minecraft.item.crafting.IRecipe;
 import net.minecraft.item.crafting.IRecipeType;
 import net.minecraft.world.storage.loot.LootContext;
 import net.minecraft.world.storage.loot.conditions.ILootCondition;
-import net.minecraftforge.common.loot.LootModifier;
 
 /**
  * This loot modifier will try to craft the item into something else using a defined recipe
  * category.
  */
 @SuppressWarnings({ "unchecked", "rawtypes" })
-public class ModifierRecipe extends LootModifier {
+public class ModifierRecipe extends BatchLootModifier {
     
     public static final Function<ILootCondition[], ModifierRecipe> CRAFTING = conditions -> new ModifierRecipe(conditions, IRecipeType.CRAFTING);
     public static final Function<ILootCondition[], ModifierRecipe> SMELTING = conditions -> new ModifierRecipe(conditions, IRecipeType.SMELTING);
@@ -33,7 +32,7 @@ public class ModifierRecipe extends LootModifier {
     
     public ModifierRecipe(ILootCondition[] conditions, IRecipeType type) {
         
-        super(conditions);
+        super(LootConditionAdaptive.combine(conditions));
         this.recipeType = type;
     }
     
@@ -41,27 +40,35 @@ public class ModifierRecipe extends LootModifier {
     @Override
     public List<ItemStack> doApply (List<ItemStack> loot, LootContext ctx) {
         
-        return loot.stream().map(stack -> this.craft(stack, ctx)).collect(Collectors.toList());
+        final RecipeOutputCache cache = RecipeOutputCache.get(this.recipeType);
+        return loot.stream().map(stack -> this.craft(stack, ctx, cache)).collect(Collectors.toList());
     }
     
-    private ItemStack craft (ItemStack stack, LootContext ctx) {
+    @Override
+    protected void doApplyBatch (List<LootBatch.Entry> entries) {
+        
+        final RecipeOutputCache cache = RecipeOutputCache.get(this.recipeType);
+        
+        for (final LootBatch.Entry entry : entries) {
+            
+            final LootContext ctx = entry.getContext();
+            entry.setLoot(entry.getLoot().stream().map(stack -> this.craft(stack, ctx, cache)).collect(Collectors.toList()));
+        }
+    }
+    
+    private ItemStack craft (ItemStack stack, LootContext ctx, RecipeOutputCache cache) {
         
         try {
             
-            final List<IRecipe> matchingRecipes = ctx.getWorld().getRecipeManager().getRecipes(this.recipeType, new Inventory(stack), ctx.getWorld());
+            final ItemStack[] outputs = cache.getOutputs(stack, ctx.getWorld());
             
-            if (!matchingRecipes.isEmpty()) {
+            if (outputs.length > 0) {
                 
-                final IRecipe recipe = matchingRecipes.get(ctx.getWorld().rand.nextInt(matchingRecipes.size()));
+                final ItemStack output = outputs[ctx.getWorld().rand.nextInt(outputs.length)];
                 
-                if (recipe != null) {
-                    
-                    final ItemStack output = recipe.getRecipeOutput();
+                if (!output.isEmpty()) {
                     
-                    if (output != null && !output.isEmpty()) {
-                        
-                        return output;
-                    }
+                    return output.copy();
                 }
             }
         }
@@ -1,27 +1,49 @@
 package net.darkhax.bookshelf.loot.modifier;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+import net.darkhax.bookshelf.loot.condition.LootConditionAdaptive;
+import net.darkhax.bookshelf.util.LootUtils;
+import net.minecraft.block.BlockState;
 import net.minecraft.enchantment.EnchantmentHelper;
 import net.minecraft.enchantment.Enchantments;
 import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.world.storage.loot.LootContext;
 import net.minecraft.world.storage.loot.LootParameterSets;
 import net.minecraft.world.storage.loot.LootParameters;
 import net.minecraft.world.storage.loot.LootTable;
+import net.minecraft.world.storage.loot.LootTableManager;
 import net.minecraft.world.storage.loot.conditions.ILootCondition;
-import net.minecraftforge.common.loot.LootModifier;
+import net.minecraftforge.common.ForgeHooks;
 
 /**
  * This loot modifiers regenerates the loot of a block as if it had silk touch.
  */
-public class ModifierSilkTouch extends LootModifier {
+public class ModifierSilkTouch extends BatchLootModifier {
+    
+    /**
+     * The cached silk touch drops of blocks whose loot tables only depend on the block state.
+     */
+    private static final DropCache DROP_CACHE = new DropCache();
+    
+    /**
+     * A silk touch tool for each thread which is reused when the next tool is of the same
+     * item. This avoids creating a new stack and its capabilities for every broken block. This
+     * is never {@link ItemStack#EMPTY}, as the enchantment is written to it.
+     */
+    private static final ThreadLocal<ItemStack> SILK_TOOLS = new ThreadLocal<>();
     
     public ModifierSilkTouch(ILootCondition[] conditionsIn) {
         
-        super(conditionsIn);
+        super(LootConditionAdaptive.combine(conditionsIn));
     }
     
     @Nonnull
@@ -30,19 +52,130 @@ public class ModifierSilkTouch extends LootModifier {
         
         final ItemStack tool = context.get(LootParameters.TOOL);
         
-        if (EnchantmentHelper.getEnchantmentLevel(Enchantments.SILK_TOUCH, tool) == 0) {
-            
-            final ItemStack fakeTool = tool.copy();
-            fakeTool.addEnchantment(Enchantments.SILK_TOUCH, 1);
+        if (tool == null || EnchantmentHelper.getEnchantmentLevel(Enchantments.SILK_TOUCH, tool) == 0) {
             
             final LootContext.Builder builder = new LootContext.Builder(context);
-            builder.withParameter(LootParameters.TOOL, fakeTool);
+            builder.withParameter(LootParameters.TOOL, getSilkTool(tool));
             
             final LootContext fakeContext = builder.build(LootParameterSets.BLOCK);
-            final LootTable table = context.getWorld().getServer().getLootTableManager().getLootTableFromLocation(context.get(LootParameters.BLOCK_STATE).getBlock().getLootTable());
+            final BlockState state = context.get(LootParameters.BLOCK_STATE);
+            final LootTableManager manager = context.getWorld().getServer().getLootTableManager();
+            final LootTable table = manager.getLootTableFromLocation(state.getBlock().getLootTable());
+            
+            // Explosions add randomness to tables that would otherwise be deterministic.
+            if (context.get(LootParameters.EXPLOSION_RADIUS) == null) {
+                
+                final List<ItemStack> drops = DROP_CACHE.getDrops(manager, table, state, fakeContext);
+                
+                if (drops != null) {
+                    
+                    return ForgeHooks.modifyLoot(drops, fakeContext);
+                }
+            }
+            
             return table.generate(fakeContext);
         }
         
         return loot;
     }
+    
+    /**
+     * Gets a copy of a tool with silk touch added to it. The returned stack is reused by later
+     * calls on the same thread and must not be kept. An empty hand is given its own empty
+     * stack, so the enchantment is never written to {@link ItemStack#EMPTY}.
+     * 
+     * @param tool The tool to copy. This may be null or empty for an empty hand.
+     * @return A copy of the tool with silk touch.
+     */
+    private static ItemStack getSilkTool (@Nullable ItemStack tool) {
+        
+        final ItemStack base = tool != null ? tool : ItemStack.EMPTY;
+        ItemStack silkTool = SILK_TOOLS.get();
+        
+        if (silkTool != null && silkTool.getItem() == base.getItem() && silkTool.areCapsCompatible(base)) {
+            
+            final CompoundNBT tag = base.getTag();
+            silkTool.setTag(tag != null ? tag.copy() : null);
+            silkTool.setCount(base.getCount());
+        }
+        
+        else {
+            
+            silkTool = base.isEmpty() ? new ItemStack(Items.AIR) : base.copy();
+            SILK_TOOLS.set(silkTool);
+        }
+        
+        silkTool.addEnchantment(Enchantments.SILK_TOUCH, 1);
+        return silkTool;
+    }
+    
+    /**
+     * A cache of the silk touch drops for each block state. Only states whose loot table passes
+     * {@link LootUtils#isStateDeterministic(LootTable)} are cached. The cache is cleared when
+     * the loot tables are reloaded.
+     */
+    private static class DropCache {
+        
+        /**
+         * The table map of the loot table manager that the cache was populated from.
+         */
+        @Nullable
+        private Map<?, ?> tableSource;
+        
+        /**
+         * The result of analyzing each table that has been used.
+         */
+        private final Map<LootTable, Boolean> deterministicTables = new IdentityHashMap<>();
+        
+        /**
+         * The raw table output for each cached block state. Global loot modifiers have not
+         * been applied to these.
+         */
+        private final Map<BlockState, ItemStack[]> drops = new IdentityHashMap<>();
+        
+        /**
+         * Gets a copy of the cached drops for a block state, generating them if the table of
+         * the state only depends on the block state.
+         * 
+         * @param manager The loot table manager.
+         * @param table The loot table of the block.
+         * @param state The block state that was broken.
+         * @param context The silk touch loot context.
+         * @return A copy of the drops for the state, or null if they can not be cached.
+         */
+        @Nullable
+        private synchronized List<ItemStack> getDrops (LootTableManager manager, LootTable table, BlockState state, LootContext context) {
+            
+            if (this.tableSource != manager.registeredLootTables) {
+                
+                this.deterministicTables.clear();
+                this.drops.clear();
+                this.tableSource = manager.registeredLootTables;
+            }
+            
+            ItemStack[] cachedDrops = this.drops.get(state);
+            
+            if (cachedDrops == null) {
+                
+                if (!this.deterministicTables.computeIfAbsent(table, LootUtils::isStateDeterministic)) {
+                    
+                    return null;
+                }
+                
+                final List<ItemStack> generated = new ArrayList<>();
+                table.generate(context, generated::add);
+                cachedDrops = generated.toArray(new ItemStack[0]);
+                this.drops.put(state, cachedDrops);
+            }
+            
+            final List<ItemStack> copies = new ArrayList<>(cachedDrops.length);
+            
+            for (final ItemStack drop : cachedDrops) {
+                
+                copies.add(drop.copy());
+            }
+            
+            return copies;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package net.darkhax.bookshelf.registry;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.apache.logging.log4j.Logger;
+
+import com.google.gson.JsonObject;
+
+import net.darkhax.bookshelf.util.LootUtils;
+import net.darkhax.bookshelf.util.MCJsonUtils;
+import net.minecraft.client.resources.ReloadListener;
+import net.minecraft.profiler.IProfiler;
+import net.minecraft.resources.IResourceManager;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.storage.loot.LootPool;
+import net.minecraft.world.storage.loot.LootTable;
+import net.minecraft.world.storage.loot.LootTableManager;
+import net.minecraftforge.common.ForgeHooks;
+import net.minecraftforge.fml.server.ServerLifecycleHooks;
+
+/**
+ * Merges injection tables into their target tables after the loot tables have been reloaded.
+ * This is an alternative to merging each table as it is loaded. The injection tables are read
+ * while resources are being prepared, and all targets are merged on the game thread in the
+ * apply stage, right after the loot table manager has applied the new tables and before
+ * anything else can read them. A single summary is logged per reload.
+ * 
+ * Nothing is reused between reloads. Each injection table is loaded again so that the loot
+ * table load event and forge's loading hooks run for it every time, as they can change the
+ * table even when its JSON has not changed. The target tables are new objects after every
+ * reload, so a merged result can not be reused either.
+ */
+public class LootTableMerger extends ReloadListener<Map<ResourceLocation, JsonObject>> {
+    
+    private final Logger logger;
+    
+    /**
+     * A map of target table names to the name of the table injected into them.
+     */
+    private final Map<ResourceLocation, ResourceLocation> injectionTables;
+    
+    public LootTableMerger(Logger logger, Map<ResourceLocation, ResourceLocation> injectionTables) {
+        
+        this.logger = logger;
+        this.injectionTables = injectionTables;
+    }
+    
+    @Override
+    protected Map<ResourceLocation, JsonObject> prepare (IResourceManager resourceManager, IProfiler profiler) {
+        
+        final Map<ResourceLocation, JsonObject> injectionData = new HashMap<>();
+        
+        for (final ResourceLocation injectTableName : this.injectionTables.values()) {
+            
+            try {
+                
+                final JsonObject json = MCJsonUtils.loadLootTable(resourceManager, injectTableName);
+                
+                if (json != null) {
+                    
+                    injectionData.put(injectTableName, json);
+                }
+            }
+            
+            catch (final IOException e) {
+                
+                this.logger.error("Failed to load {} as a loot table.", injectTableName, e);
+            }
+        }
+        
+        return injectionData;
+    }
+    
+    @Override
+    protected void apply (Map<ResourceLocation, JsonObject> injectionData, IResourceManager resourceManager, IProfiler profiler) {
+        
+        final MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        
+        if (server == null) {
+            
+            return;
+        }
+        
+        final long startTime = System.nanoTime();
+        final LootTableManager manager = server.getLootTableManager();
+        final Map<ResourceLocation, LootTable> tables = manager.registeredLootTables;
+        int mergedTables = 0;
+        int mergedPools = 0;
+        int injectedPools = 0;
+        
+        // Injection tables are loaded on this thread, as loading them fires the table load event.
+        final Map<ResourceLocation, List<LootPool>> injections = new HashMap<>();
+        
+        for (final Map.Entry<ResourceLocation, JsonObject> entry : injectionData.entrySet()) {
+            
+            final List<LootPool> injection = this.loadInjection(manager, entry.getKey(), entry.getValue());
+            
+            if (injection != null) {
+                
+                injections.put(entry.getKey(), injection);
+            }
+        }
+        
+        for (final Map.Entry<ResourceLocation, ResourceLocation> entry : this.injectionTables.entrySet()) {
+            
+            final LootTable original = tables.get(entry.getKey());
+            final List<LootPool> injection = injections.get(entry.getValue());
+            
+            if (original != null && injection != null) {
+                
+                final List<LootPool> pools = LootUtils.getPools(original);
+                final Map<String, LootPool> mappedPools = LootUtils.mapPools(pools);
+                
+                for (final LootPool poolToInject : injection) {
+                    
+                    final LootPool originalPool = mappedPools.get(poolToInject.getName());
+                    
+                    if (originalPool != null) {
+                        
+                        LootUtils.getEntries(originalPool).addAll(LootUtils.getEntries(poolToInject));
+                        LootUtils.getConditions(originalPool).addAll(LootUtils.getConditions(poolToInject));
+                        mergedPools++;
+                    }
+                    
+                    else {
+                        
+                        pools.add(poolToInject);
+                        injectedPools++;
+                    }
+                }
+                
+                mergedTables++;
+            }
+        }
+        
+        this.logger.info("Merged {} pools and injected {} new pools into {} loot tables in {}ms.", mergedPools, injectedPools, mergedTables, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+    
+    /**
+     * Loads an injection table.
+     * 
+     * @param manager The loot table manager.
+     * @param name The name of the injection table.
+     * @param json The JSON of the injection table.
+     * @return The pools of the injection table, or null if it could not be loaded.
+     */
+    @Nullable
+    private List<LootPool> loadInjection (LootTableManager manager, ResourceLocation name, JsonObject json) {
+        
+        try {
+            
+            final LootTable table = ForgeHooks.loadLootTable(LootTableManager.GSON_INSTANCE, name, json, true, manager);
+            
+            if (table != null) {
+                
+                return LootUtils.getPools(table);
+            }
+        }
+        
+        catch (final RuntimeException e) {
+            
+            this.logger.error("Failed to load {} as a loot table.", name, e);
+        }
+        
+        return null;
+    }
+}
\ No newline at end of file
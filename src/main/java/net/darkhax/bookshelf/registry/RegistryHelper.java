@@ -77,6 +77,7 @@ import net.minecraftforge.event.village.WandererTradesEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.fml.DistExecutor;
 import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
+import net.minecraftforge.fml.event.server.FMLServerAboutToStartEvent;
 import net.minecraftforge.fml.event.server.FMLServerStartingEvent;
 import net.minecraftforge.fml.server.ServerLifecycleHooks;
 import net.minecraftforge.registries.IForgeRegistry;
@@ -183,7 +184,15 @@ public class RegistryHelper {
         
         if (!this.injectionTables.isEmpty()) {
             
-            MinecraftForge.EVENT_BUS.addListener(this::loadTableInjections);
+            if (this.mergeInjectionsOnReload) {
+                
+                MinecraftForge.EVENT_BUS.addListener(this::registerTableMerger);
+            }
+            
+            else {
+                
+                MinecraftForge.EVENT_BUS.addListener(this::loadTableInjections);
+            }
         }
         
         if (!this.globalModifierSerializers.isEmpty()) {
@@ -724,6 +733,7 @@ public class RegistryHelper {
      * LOOT TABLE INJECTION
      */
     private final Map<ResourceLocation, ResourceLocation> injectionTables = new HashMap<>();
+    private boolean mergeInjectionsOnReload = false;
     
     public ResourceLocation injectTable (ResourceLocation toInject) {
         
@@ -732,6 +742,23 @@ public class RegistryHelper {
         return injectId;
     }
     
+    /**
+     * Sets whether injection tables are merged in a single stage after all loot tables have
+     * been reloaded, rather than as each table is loaded. Merging on reload handles all tables
+     * in one pass and logs a single summary. This must be set before {@link #initialize(IEventBus)}.
+     * 
+     * @param mergeOnReload Whether or not to merge injection tables on reload.
+     */
+    public void setMergeInjectionsOnReload (boolean mergeOnReload) {
+        
+        this.mergeInjectionsOnReload = mergeOnReload;
+    }
+    
+    private void registerTableMerger (FMLServerAboutToStartEvent event) {
+        
+        event.getServer().getResourceManager().addReloadListener(new LootTableMerger(this.logger, this.injectionTables));
+    }
+    
     private void loadTableInjections (LootTableLoadEvent event) {
         
         final ResourceLocation injectTableName = this.injectionTables.get(event.getName());
@@ -0,0 +1,128 @@
+/**
+ * This class was created by <Darkhax>. It is distributed as part of Bookshelf. You can find
+ * the original source here: https://github.com/Darkhax-Minecraft/Bookshelf
+ *
+ * Bookshelf is Open Source and distributed under the GNU Lesser General Public License version
+ * 2.1.
+ */
+package net.darkhax.bookshelf.util;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.minecraft.util.registry.Registry;
+import net.minecraft.world.biome.Biome;
+import net.minecraftforge.common.BiomeDictionary;
+import net.minecraftforge.common.BiomeDictionary.Type;
+import net.minecraftforge.registries.ForgeRegistries;
+
+public final class BiomeUtils {
+    
+    /**
+     * A map of biome dictionary types to a bitset of the numeric ids of every biome with that
+     * type. This is built the first time it is needed, and rebuilt after
+     * {@link #invalidateTypeCache()} is called.
+     */
+    private static volatile Map<Type, BitSet> typeCache;
+    
+    /**
+     * The amount of biome ids covered by {@link #typeCache}. Biomes with a larger id were
+     * registered after the cache was built.
+     */
+    private static volatile int cachedBiomes;
+    
+    /**
+     * Checks if a biome has a biome dictionary type. This is equivalent to
+     * {@link BiomeDictionary#hasType(Biome, Type)} but uses a precomputed bitset for each type.
+     * 
+     * @param biome The biome to check.
+     * @param type The type to look for.
+     * @return Whether or not the biome has the type.
+     */
+    public static boolean hasType (Biome biome, Type type) {
+        
+        final Map<Type, BitSet> cache = getTypeCache();
+        final int biomeId = Registry.BIOME.getId(biome);
+        
+        if (biomeId < 0) {
+            
+            // Biomes without an id are not in the cache, and never will be.
+            return BiomeDictionary.hasType(biome, type);
+        }
+        
+        if (biomeId >= cachedBiomes) {
+            
+            // The biome was registered after the cache was built.
+            invalidateTypeCache();
+            return BiomeDictionary.hasType(biome, type);
+        }
+        
+        final BitSet biomes = cache.get(type);
+        return biomes != null && biomes.get(biomeId);
+    }
+    
+    /**
+     * Invalidates the cached biome types. The cache will be rebuilt the next time it is needed.
+     * This should be called if biome dictionary types are added after the game has loaded.
+     */
+    public static void invalidateTypeCache () {
+        
+        typeCache = null;
+    }
+    
+    /**
+     * Gets the biome type cache, building it if it does not exist.
+     * 
+     * @return The biome type cache.
+     */
+    private static Map<Type, BitSet> getTypeCache () {
+        
+        Map<Type, BitSet> cache = typeCache;
+        
+        if (cache == null) {
+            
+            synchronized (BiomeUtils.class) {
+                
+                cache = typeCache;
+                
+                if (cache == null) {
+                    
+                    cache = buildTypeCache();
+                    typeCache = cache;
+                }
+            }
+        }
+        
+        return cache;
+    }
+    
+    /**
+     * Builds a map of biome dictionary types to the numeric ids of the biomes with that type.
+     * 
+     * @return A map of biome types to biome ids.
+     */
+    private static Map<Type, BitSet> buildTypeCache () {
+        
+        final Map<Type, BitSet> cache = new IdentityHashMap<>();
+        int maxId = -1;
+        
+        for (final Biome biome : ForgeRegistries.BIOMES.getValues()) {
+            
+            final int biomeId = Registry.BIOME.getId(biome);
+            
+            if (biomeId >= 0) {
+                
+                maxId = Math.max(maxId, biomeId);
+                
+                for (final Type type : BiomeDictionary.getTypes(biome)) {
+                    
+                    cache.computeIfAbsent(type, key -> new BitSet()).set(biomeId);
+                }
+            }
+        }
+        
+        cachedBiomes = maxId + 1;
+        return cache;
+    }
+}
\ No newline at end of file
@@ -162,6 +162,10 @@ public class InventoryUtils {
      */
     public static NonNullList<ItemStack> keepDamageableItems (CraftingInventory inv, NonNullList<ItemStack> keptItems, boolean ignoreUnbreaking, int damageAmount) {
         
+        // The player is looked up once, the first time a damageable item is found.
+        PlayerEntity player = null;
+        Random random = null;
+        
         for (int i = 0; i < keptItems.size(); i++) {
             
             final ItemStack stack = inv.getStackInSlot(i);
@@ -169,9 +173,12 @@ public class InventoryUtils {
             // Checks if the item has durability or has the unbreaking tag.
             if (stack.getItem().isDamageable() || stack.hasTag() && stack.getTag().getBoolean("Unbreakable")) {
                 
-                @Nullable
-                final PlayerEntity player = InventoryUtils.getCraftingPlayer(inv);
-                final Random random = player != null ? player.getRNG() : Bookshelf.RANDOM;
+                if (random == null) {
+                    
+                    player = InventoryUtils.getCraftingPlayer(inv);
+                    random = player != null ? player.getRNG() : Bookshelf.RANDOM;
+                }
+                
                 final ItemStack retainedStack = stack.copy();
                 
                 // Sometimes you may want to ignore/bypass the unbreaking enchantment.
@@ -9,25 +9,44 @@ package net.darkhax.bookshelf.util;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.JSONUtils;
 import net.minecraft.world.storage.loot.LootContext;
 import net.minecraft.world.storage.loot.LootEntry;
 import net.minecraft.world.storage.loot.LootParameters;
 import net.minecraft.world.storage.loot.LootPool;
 import net.minecraft.world.storage.loot.LootTable;
+import net.minecraft.world.storage.loot.LootTableManager;
 import net.minecraft.world.storage.loot.conditions.ILootCondition;
 import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
 
 public final class LootUtils {
     
+    /**
+     * The types of loot conditions which only depend on the block state, or on the explosion
+     * radius which is not present when a block is broken normally.
+     */
+    private static final Set<String> STATE_CONDITIONS = ImmutableSet.of("minecraft:block_state_property", "minecraft:survives_explosion");
+    
+    /**
+     * The types of loot functions which only depend on the block state, or on the explosion
+     * radius which is not present when a block is broken normally.
+     */
+    private static final Set<String> STATE_FUNCTIONS = ImmutableSet.of("minecraft:copy_state", "minecraft:explosion_decay", "minecraft:limit_count", "minecraft:set_nbt");
+    
     /**
      * Maps a list of loot pools using their names.
      * 
@@ -103,4 +122,218 @@ public final class LootUtils {
         
         return stack;
     }
+    
+    /**
+     * Checks if the output of a block loot table only depends on the block state when it is
+     * generated with a silk touch tool and no explosion. The table is serialized and every
+     * pool, entry, condition and function is checked against a list of types known to not use
+     * randomness, the tool, or an entity. Anything which is not recognized is treated as
+     * depending on something other than the block state.
+     * 
+     * @param table The table to check.
+     * @return Whether or not the output of the table only depends on the block state.
+     */
+    public static boolean isStateDeterministic (LootTable table) {
+        
+        try {
+            
+            final JsonObject json = LootTableManager.GSON_INSTANCE.toJsonTree(table).getAsJsonObject();
+            
+            if (!areStateFunctions(json)) {
+                
+                return false;
+            }
+            
+            for (final JsonElement pool : JSONUtils.getJsonArray(json, "pools", new JsonArray())) {
+                
+                if (!isStatePool(pool.getAsJsonObject())) {
+                    
+                    return false;
+                }
+            }
+            
+            return true;
+        }
+        
+        catch (final RuntimeException e) {
+            
+            // Tables which can not be serialized can not be analyzed.
+            return false;
+        }
+    }
+    
+    private static boolean isStatePool (JsonObject pool) {
+        
+        final JsonArray entries = JSONUtils.getJsonArray(pool, "entries", new JsonArray());
+        final Float bonusRolls = pool.has("bonus_rolls") ? getConstant(pool.get("bonus_rolls")) : Float.valueOf(0f);
+        
+        // Pools with more than one entry pick one at random, and bonus rolls depend on luck.
+        return entries.size() == 1 && getConstant(pool.get("rolls")) != null && bonusRolls != null && bonusRolls == 0f && areStateConditions(pool) && areStateFunctions(pool) && isStateEntry(entries.get(0).getAsJsonObject());
+    }
+    
+    private static boolean isStateEntry (JsonObject entry) {
+        
+        if (!areStateConditions(entry)) {
+            
+            return false;
+        }
+        
+        final String type = JSONUtils.getString(entry, "type");
+        
+        if ("minecraft:empty".equals(type)) {
+            
+            return true;
+        }
+        
+        else if ("minecraft:item".equals(type)) {
+            
+            return areStateFunctions(entry);
+        }
+        
+        else if ("minecraft:tag".equals(type)) {
+            
+            // Expanded tags pick one of the tagged items at random.
+            return !JSONUtils.getBoolean(entry, "expand", false) && areStateFunctions(entry);
+        }
+        
+        else if ("minecraft:alternatives".equals(type)) {
+            
+            // Alternatives only ever produce the first child that passes its conditions.
+            for (final JsonElement child : JSONUtils.getJsonArray(entry, "children", new JsonArray())) {
+                
+                if (!isStateEntry(child.getAsJsonObject())) {
+                    
+                    return false;
+                }
+            }
+            
+            return true;
+        }
+        
+        return false;
+    }
+    
+    private static boolean areStateConditions (JsonObject json) {
+        
+        for (final JsonElement condition : JSONUtils.getJsonArray(json, "conditions", new JsonArray())) {
+            
+            if (!isStateCondition(condition.getAsJsonObject())) {
+                
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    private static boolean isStateCondition (JsonObject condition) {
+        
+        final String type = JSONUtils.getString(condition, "condition");
+        
+        if (STATE_CONDITIONS.contains(type)) {
+            
+            return true;
+        }
+        
+        else if ("minecraft:match_tool".equals(type)) {
+            
+            return isSilkTouchPredicate(condition.get("predicate"));
+        }
+        
+        else if ("minecraft:inverted".equals(type)) {
+            
+            return isStateCondition(JSONUtils.getJsonObject(condition, "term"));
+        }
+        
+        else if ("minecraft:alternative".equals(type)) {
+            
+            for (final JsonElement term : JSONUtils.getJsonArray(condition, "terms")) {
+                
+                if (!isStateCondition(term.getAsJsonObject())) {
+                    
+                    return false;
+                }
+            }
+            
+            return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Checks if an item predicate only checks for the silk touch enchantment. The tool used to
+     * generate silk touch drops always has silk touch, so these predicates have a fixed result.
+     * 
+     * @param predicate The serialized item predicate.
+     * @return Whether or not the predicate only checks for silk touch.
+     */
+    private static boolean isSilkTouchPredicate (@Nullable JsonElement predicate) {
+        
+        if (predicate == null || predicate.isJsonNull()) {
+            
+            return true;
+        }
+        
+        final JsonObject json = predicate.getAsJsonObject();
+        
+        if (json.size() != 1 || !json.has("enchantments")) {
+            
+            return false;
+        }
+        
+        for (final JsonElement enchantment : JSONUtils.getJsonArray(json, "enchantments")) {
+            
+            if (!"minecraft:silk_touch".equals(JSONUtils.getString(enchantment.getAsJsonObject(), "enchantment", ""))) {
+                
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    private static boolean areStateFunctions (JsonObject json) {
+        
+        for (final JsonElement element : JSONUtils.getJsonArray(json, "functions", new JsonArray())) {
+            
+            final JsonObject function = element.getAsJsonObject();
+            final String type = JSONUtils.getString(function, "function");
+            final boolean isStateFunction = STATE_FUNCTIONS.contains(type) || "minecraft:set_count".equals(type) && getConstant(function.get("count")) != null;
+            
+            if (!isStateFunction || !areStateConditions(function)) {
+                
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Gets the value of a serialized random range if it always has the same value.
+     * 
+     * @param range The serialized range.
+     * @return The constant value of the range, or null if the range is not constant.
+     */
+    @Nullable
+    private static Float getConstant (@Nullable JsonElement range) {
+        
+        if (range != null && range.isJsonPrimitive() && range.getAsJsonPrimitive().isNumber()) {
+            
+            return range.getAsFloat();
+        }
+        
+        if (range != null && range.isJsonObject()) {
+            
+            final JsonObject json = range.getAsJsonObject();
+            
+            if (!json.has("type") && json.has("min") && json.has("max") && json.get("min").getAsFloat() == json.get("max").getAsFloat()) {
+                
+                return json.get("min").getAsFloat();
+            }
+        }
+        
+        return null;
+    }
 }
\ No newline at end of file
@@ -7,16 +7,23 @@
  */
 package net.darkhax.bookshelf.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import net.darkhax.bookshelf.Bookshelf;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.state.IProperty;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.registry.Registry;
 import net.minecraftforge.registries.ForgeRegistries;
 
 public class PacketUtils {
@@ -126,4 +133,60 @@ public class PacketUtils {
             toFill.add(buffer.readString());
         }
     }
+    
+    /**
+     * Writes a list of items using their numeric registry ids. The ids are sorted and written
+     * as varint deltas. The count and NBT of the stacks are not written.
+     * 
+     * @param buffer The buffer to write to.
+     * @param stacks The items to write.
+     */
+    public static void serializeItems (PacketBuffer buffer, ItemStack[] stacks) {
+        
+        final int[] ids = new int[stacks.length];
+        
+        for (int i = 0; i < ids.length; i++) {
+            
+            ids[i] = Registry.ITEM.getId(stacks[i].getItem());
+        }
+        
+        Arrays.sort(ids);
+        buffer.writeVarInt(ids.length);
+        
+        int previous = 0;
+        
+        for (final int id : ids) {
+            
+            buffer.writeVarInt(id - previous);
+            previous = id;
+        }
+    }
+    
+    /**
+     * Reads a list of items that was written by
+     * {@link #serializeItems(PacketBuffer, ItemStack[])}. Ids which are not known to the
+     * registry are skipped.
+     * 
+     * @param buffer The buffer to read from.
+     * @return A new list of item stacks, sorted by their registry ids.
+     */
+    public static List<ItemStack> deserializeItems (PacketBuffer buffer) {
+        
+        final int count = buffer.readVarInt();
+        final List<ItemStack> stacks = new ArrayList<>(count);
+        int id = 0;
+        
+        for (int i = 0; i < count; i++) {
+            
+            id += buffer.readVarInt();
+            final Item item = Registry.ITEM.getByValue(id);
+            
+            if (item != null && item != Items.AIR) {
+                
+                stacks.add(new ItemStack(item));
+            }
+        }
+        
+        return stacks;
+    }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@
  */
 package net.darkhax.bookshelf.util;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -17,6 +18,7 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 import net.darkhax.bookshelf.Bookshelf;
+import net.darkhax.bookshelf.item.crafting.RecipeIndex;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.item.Item;
 import net.minecraft.item.crafting.IRecipe;
@@ -65,11 +67,57 @@ public final class RecipeUtils {
      * @param <T> The type of the IRecipe object.
      * @param recipeType The recipe type to look up.
      * @param manager The recipe manager to pull data from.
-     * @return A list of recipes for the given recipe type.
+     * @return A new list of recipes for the given recipe type.
      */
     public static <T extends IRecipe<?>> List<T> getRecipeList (IRecipeType<T> recipeType, RecipeManager manager) {
         
-        return getRecipeList(recipeType, manager, Comparator.comparing(recipe -> recipe.getRecipeOutput().getTranslationKey()));
+        return new ArrayList<>(getSortedRecipes(recipeType, manager));
+    }
+    
+    /**
+     * Gets a list of all recipes for a given recipe type. This list will be sorted using the
+     * translation key of the output item. Unlike
+     * {@link #getRecipeList(IRecipeType, RecipeManager)} the list is not copied. It is cached
+     * until the recipes are reloaded, and can not be modified.
+     * 
+     * @param <T> The type of the IRecipe object.
+     * @param recipeType The recipe type to look up.
+     * @param manager The recipe manager to pull data from.
+     * @return An unmodifiable list of recipes for the given recipe type.
+     */
+    public static <T extends IRecipe<?>> List<T> getSortedRecipes (IRecipeType<T> recipeType, RecipeManager manager) {
+        
+        return RecipeIndex.get(manager).getRecipes(recipeType);
+    }
+    
+    /**
+     * Gets a list of all recipes for a given recipe type which have an ingredient that accepts
+     * an item. This list will be sorted using the translation key of the output item.
+     * 
+     * @param <T> The type of the IRecipe object.
+     * @param recipeType The recipe type to look up.
+     * @param manager The recipe manager to pull data from.
+     * @param input The input item to look for.
+     * @return An unmodifiable list of recipes which use the item.
+     */
+    public static <T extends IRecipe<?>> List<T> getRecipesWithInput (IRecipeType<T> recipeType, RecipeManager manager, Item input) {
+        
+        return RecipeIndex.get(manager).getRecipesWithInput(recipeType, input);
+    }
+    
+    /**
+     * Gets a list of all recipes for a given recipe type which output an item. This list will
+     * be sorted using the translation key of the output item.
+     * 
+     * @param <T> The type of the IRecipe object.
+     * @param recipeType The recipe type to look up.
+     * @param manager The recipe manager to pull data from.
+     * @param output The output item to look for.
+     * @return An unmodifiable list of recipes which produce the item.
+     */
+    public static <T extends IRecipe<?>> List<T> getRecipesWithOutput (IRecipeType<T> recipeType, RecipeManager manager, Item output) {
+        
+        return RecipeIndex.get(manager).getRecipesWithOutput(recipeType, output);
     }
     
     /**
@@ -9,15 +9,17 @@ package net.darkhax.bookshelf.util;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.function.Predicate;
 
+import net.darkhax.bookshelf.lib.SlimeChunkCache;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.util.Direction;
 import net.minecraft.util.IWorldPosCallable;
 import net.minecraft.util.ResourceLocation;
-import net.minecraft.util.SharedSeedRandom;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.BlockPos.Mutable;
 import net.minecraft.util.math.ChunkPos;
@@ -28,6 +30,17 @@ import net.minecraft.world.storage.loot.LootTableManager;
 
 public final class WorldUtils {
     
+    /**
+     * The maximum amount of slime chunk regions to cache for each world.
+     */
+    private static final int SLIME_CACHE_REGIONS = 256;
+    
+    /**
+     * Slime chunk caches for each world. Worlds are weakly referenced so unloaded worlds will
+     * have their cache released.
+     */
+    private static final Map<ServerWorld, SlimeChunkCache> SLIME_CACHES = new WeakHashMap<>();
+    
     /**
      * Gets the amount of loaded chunks.
      *
@@ -132,7 +145,47 @@ public final class WorldUtils {
      */
     public static boolean isSlimeChunk (ServerWorld world, BlockPos pos) {
         
-        return SharedSeedRandom.seedSlimeChunk(pos.getX() >> 4, pos.getZ() >> 4, world.getSeed(), 987234911L).nextInt(10) == 0;
+        return isSlimeChunk(world, pos.getX() >> 4, pos.getZ() >> 4);
+    }
+    
+    /**
+     * Checks if a given chunk is a slime chunk. The result is read from a cache of slime chunk
+     * regions for the world which are calculated as they are needed.
+     *
+     * @param world The server world. Server is specifically needed as client doesn't have the
+     *        seed.
+     * @param chunkX The x position of the chunk.
+     * @param chunkZ The z position of the chunk.
+     * @return Whether or not the given chunk is a slime chunk.
+     */
+    public static boolean isSlimeChunk (ServerWorld world, int chunkX, int chunkZ) {
+        
+        return getSlimeChunkCache(world).isSlimeChunk(chunkX, chunkZ);
+    }
+    
+    /**
+     * Gets the slime chunk cache for a world. If the world does not have a cache, or the seed
+     * of the world has changed, a new cache will be created.
+     *
+     * @param world The server world to get the cache for.
+     * @return The slime chunk cache for the world.
+     */
+    public static SlimeChunkCache getSlimeChunkCache (ServerWorld world) {
+        
+        final long seed = world.getSeed();
+        
+        synchronized (SLIME_CACHES) {
+            
+            SlimeChunkCache cache = SLIME_CACHES.get(world);
+            
+            if (cache == null || cache.getSeed() != seed) {
+                
+                cache = new SlimeChunkCache(seed, SLIME_CACHE_REGIONS);
+                SLIME_CACHES.put(world, cache);
+            }
+            
+            return cache;
+        }
     }
     
     /**